@@ -0,0 +1,106 @@
+package com.jqueue.benchmark;
+
+import com.jqueue.FileTransfer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * {@link FileTransfer#copy} against a plain read/write loop, for in-memory streams (pooled buffer
+ * path) and file streams (channel path). Results are per copy of {@code size} bytes.
+ */
+@State(Scope.Thread)
+public class CopyBenchmark {
+    /**
+     * Buffer of the plain loop, the size FileUtils copied with before {@link FileTransfer}.
+     */
+    private static final int LOOP_BUFFER_SIZE = 1024;
+
+    @Param({"4096", "65536", "1048576", "16777216"})
+    public int size;
+
+    private byte[] data;
+    private File source;
+    private File target;
+
+    @Setup
+    public void setUp() throws IOException {
+        data = new byte[size];
+        new Random(42).nextBytes(data);
+        source = File.createTempFile("copy-source", null);
+        target = File.createTempFile("copy-target", null);
+        FileOutputStream outputStream = new FileOutputStream(source);
+        try {
+            outputStream.write(data);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        source.delete();
+        target.delete();
+    }
+
+    @Benchmark
+    public long memoryFileTransfer() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(size);
+        return FileTransfer.copy(new ByteArrayInputStream(data), outputStream);
+    }
+
+    @Benchmark
+    public long memoryLoop() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(size);
+        return loop(new ByteArrayInputStream(data), outputStream, LOOP_BUFFER_SIZE);
+    }
+
+    @Benchmark
+    public long fileFileTransfer() throws IOException {
+        FileInputStream inputStream = new FileInputStream(source);
+        FileOutputStream outputStream = new FileOutputStream(target);
+        try {
+            return FileTransfer.copy(inputStream, outputStream);
+        } finally {
+            inputStream.close();
+            outputStream.close();
+        }
+    }
+
+    @Benchmark
+    public long fileLoop() throws IOException {
+        FileInputStream inputStream = new FileInputStream(source);
+        FileOutputStream outputStream = new FileOutputStream(target);
+        try {
+            return loop(inputStream, outputStream, LOOP_BUFFER_SIZE);
+        } finally {
+            inputStream.close();
+            outputStream.close();
+        }
+    }
+
+    private static long loop(InputStream inputStream, OutputStream outputStream, int bufferSize) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+}
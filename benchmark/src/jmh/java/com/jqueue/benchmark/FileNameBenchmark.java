@@ -0,0 +1,96 @@
+package com.jqueue.benchmark;
+
+import com.jqueue.FileNameAllocator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Claiming "image.jpg" in a directory that already holds {@code existing} numbered copies, with
+ * {@link FileNameAllocator} and with the exists() probing loop it replaced. Every call creates a
+ * file, which is deleted again after the invocation, so each call sees {@code existing} files.
+ * The allocator's counter is kept across invocations, so it is measured warm; the directory
+ * listing it does on the first collision happens during warmup.
+ */
+@State(Scope.Thread)
+public class FileNameBenchmark {
+    private static final String NAME = "image.jpg";
+
+    @Param({"10", "1000"})
+    public int existing;
+
+    private File dir;
+    private File claimed;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        dir = File.createTempFile("names", null);
+        dir.delete();
+        dir.mkdir();
+        new File(dir, NAME).createNewFile();
+        for (int i = 1; i < existing; i++) {
+            new File(dir, "image(" + i + ").jpg").createNewFile();
+        }
+        FileNameAllocator.reset(dir);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteClaimed() {
+        if (claimed != null) {
+            claimed.delete();
+            claimed = null;
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public File allocator() throws IOException {
+        return claimed = FileNameAllocator.claim(dir, NAME);
+    }
+
+    @Benchmark
+    public File legacy() throws IOException {
+        return claimed = legacyGenerateFileName(NAME, dir);
+    }
+
+    /**
+     * {@code FileUtils.generateFileName} before it delegated to {@link FileNameAllocator}.
+     */
+    private static File legacyGenerateFileName(String name, File directory) throws IOException {
+        File file = new File(directory, name);
+        if (file.exists()) {
+            String fileName = name;
+            String extension = "";
+            int dotIndex = name.lastIndexOf('.');
+            if (dotIndex > 0) {
+                fileName = name.substring(0, dotIndex);
+                extension = name.substring(dotIndex);
+            }
+            int index = 0;
+            while (file.exists()) {
+                index++;
+                name = fileName + '(' + index + ')' + extension;
+                file = new File(directory, name);
+            }
+        }
+        return file.createNewFile() ? file : null;
+    }
+}
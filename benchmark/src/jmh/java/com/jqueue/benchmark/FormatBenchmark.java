@@ -0,0 +1,117 @@
+package com.jqueue.benchmark;
+
+import com.hqyatu.destination.utils.FileUtils;
+import com.jqueue.FileSizeFormatter;
+import com.jqueue.FixedPointFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * Size formatting ({@code getReadableFileSize}) and fixed-point number formatting
+ * ({@code formatXBit}) against the implementations they replaced.
+ */
+@State(Scope.Thread)
+public class FormatBenchmark {
+    private static final int VALUES = 256;
+
+    private final long[] sizes = new long[VALUES];
+    private final double[] numbers = new double[VALUES];
+    private final StringBuilder builder = new StringBuilder(32);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < VALUES; i++) {
+            sizes[i] = (long) Math.pow(2, random.nextDouble() * 40);
+            numbers[i] = (random.nextDouble() - 0.5) * 100000;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void sizeLegacy(Blackhole blackhole) {
+        for (long size : sizes) {
+            blackhole.consume(legacyReadableFileSize((int) Math.min(size, Integer.MAX_VALUE)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void sizeGetReadableFileSize(Blackhole blackhole) {
+        for (long size : sizes) {
+            blackhole.consume(FileUtils.getReadableFileSize(size));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void sizeFormatTo(Blackhole blackhole) {
+        FileSizeFormatter formatter = FileSizeFormatter.getInstance();
+        for (long size : sizes) {
+            builder.setLength(0);
+            blackhole.consume(formatter.formatTo(size, builder).length());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void numberStringFormat(Blackhole blackhole) {
+        for (double number : numbers) {
+            blackhole.consume(String.format("%.2f", number));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void numberFormat(Blackhole blackhole) {
+        FixedPointFormatter formatter = FixedPointFormatter.getInstance();
+        for (double number : numbers) {
+            blackhole.consume(formatter.format(number, 2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void numberFormatTo(Blackhole blackhole) {
+        FixedPointFormatter formatter = FixedPointFormatter.getInstance();
+        for (double number : numbers) {
+            builder.setLength(0);
+            blackhole.consume(formatter.formatTo(number, 2, builder).length());
+        }
+    }
+
+    /**
+     * {@code FileUtils.getReadableFileSize(int)} before it delegated to {@link FileSizeFormatter}.
+     */
+    private static String legacyReadableFileSize(int size) {
+        final int BYTES_IN_KILOBYTES = 1024;
+        final DecimalFormat dec = new DecimalFormat("###.#");
+        final String KILOBYTES = " KB";
+        final String MEGABYTES = " MB";
+        final String GIGABYTES = " GB";
+        float fileSize = 0;
+        String suffix = KILOBYTES;
+
+        if (size > BYTES_IN_KILOBYTES) {
+            fileSize = size / BYTES_IN_KILOBYTES;
+            if (fileSize > BYTES_IN_KILOBYTES) {
+                fileSize = fileSize / BYTES_IN_KILOBYTES;
+                if (fileSize > BYTES_IN_KILOBYTES) {
+                    fileSize = fileSize / BYTES_IN_KILOBYTES;
+                    suffix = GIGABYTES;
+                } else {
+                    suffix = MEGABYTES;
+                }
+            }
+        }
+        return String.valueOf(dec.format(fileSize) + suffix);
+    }
+}
@@ -0,0 +1,48 @@
+package com.jqueue.benchmark;
+
+import com.hqyatu.destination.utils.FileUtils;
+import com.jqueue.MimeTypeRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Extension lookups over a mix of common, upper-case, unknown and extension-less names, against
+ * the switch they replaced.
+ */
+@State(Scope.Benchmark)
+public class MimeTypeBenchmark {
+    private static final String[] NAMES = {
+            "photo.jpg", "IMG_0001.JPG", "clip.mp4", "report.pdf", "notes.txt", "archive.zip",
+            "slides.pptx", "sheet.xlsx", "song.mp3", "page.html", "data.json", "app.apk",
+            "vector.svg", "book.epub", "font.woff2", "unknown.qqq", "README", "backup.tar.gz"
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(18)
+    public void legacySwitch(Blackhole blackhole) {
+        for (String name : NAMES) {
+            blackhole.consume(LegacyMimeType.mimeType(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(18)
+    public void registry(Blackhole blackhole) {
+        MimeTypeRegistry registry = MimeTypeRegistry.getInstance();
+        for (String name : NAMES) {
+            blackhole.consume(registry.getMimeType(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(18)
+    public void fileUtilsMimeType(Blackhole blackhole) {
+        for (String name : NAMES) {
+            blackhole.consume(FileUtils.MimeType(name));
+        }
+    }
+}
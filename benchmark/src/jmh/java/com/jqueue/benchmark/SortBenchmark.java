@@ -0,0 +1,104 @@
+package com.jqueue.benchmark;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Sorting a directory listing with {@link FileUtils#sComparator}, the comparator it replaced and
+ * collation keys as in {@code DirectoryScanner.sortByName}. Results are per sort.
+ */
+@State(Scope.Thread)
+public class SortBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int count;
+
+    private File[] files;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        File dir = new File("/sdcard/Download");
+        files = new File[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 4 + random.nextInt(20);
+            for (int c = 0; c < length; c++) {
+                char base = random.nextBoolean() ? 'a' : 'A';
+                name.append((char) (base + random.nextInt(26)));
+            }
+            files[i] = new File(dir, name.append(".jpg").toString());
+        }
+    }
+
+    @Benchmark
+    public File[] legacyComparator() {
+        File[] copy = files.clone();
+        Arrays.sort(copy, LEGACY_COMPARATOR);
+        return copy;
+    }
+
+    @Benchmark
+    public File[] sComparator() {
+        File[] copy = files.clone();
+        Arrays.sort(copy, FileUtils.sComparator);
+        return copy;
+    }
+
+    @Benchmark
+    public File[] collationKeys() {
+        return sortByName(files, newCollator());
+    }
+
+    /**
+     * {@code FileUtils.sComparator} before it used compareToIgnoreCase.
+     */
+    private static final Comparator<File> LEGACY_COMPARATOR = new Comparator<File>() {
+        @Override
+        public int compare(File f1, File f2) {
+            return f1.getName().toLowerCase().compareTo(f2.getName().toLowerCase());
+        }
+    };
+
+    /**
+     * {@code DirectoryScanner.sortByName}, which is Kotlin and not compiled into this module: one
+     * collation key per name, then a sort on the keys. Includes creating the collator, as the
+     * default argument does.
+     */
+    private static File[] sortByName(File[] files, Collator collator) {
+        final CollationKey[] keys = new CollationKey[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            keys[i] = collator.getCollationKey(files[i].getName());
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return keys[i1].compareTo(keys[i2]);
+            }
+        });
+        File[] sorted = new File[files.length];
+        for (int i = 0; i < files.length; i++) {
+            sorted[i] = files[order[i]];
+        }
+        return sorted;
+    }
+
+    private static Collator newCollator() {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+}
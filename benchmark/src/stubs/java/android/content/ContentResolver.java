@@ -0,0 +1,26 @@
+package android.content;
+
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+
+public class ContentResolver {
+    public ParcelFileDescriptor openFileDescriptor(Uri uri, String mode) throws FileNotFoundException {
+        throw new FileNotFoundException(String.valueOf(uri));
+    }
+
+    public InputStream openInputStream(Uri uri) throws FileNotFoundException {
+        throw new FileNotFoundException(String.valueOf(uri));
+    }
+
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+package android.content;
+
+import android.net.Uri;
+
+public class ContentUris {
+    public static Uri withAppendedId(Uri contentUri, long id) {
+        return Uri.parse(contentUri + "/" + id);
+    }
+}
@@ -0,0 +1,13 @@
+package android.content;
+
+import java.io.File;
+
+public abstract class Context {
+    public abstract ContentResolver getContentResolver();
+
+    public abstract File getCacheDir();
+
+    public abstract Context getApplicationContext();
+
+    public abstract String getPackageName();
+}
@@ -0,0 +1,34 @@
+package android.content;
+
+import android.net.Uri;
+
+public class Intent {
+    public static final String ACTION_GET_CONTENT = "android.intent.action.GET_CONTENT";
+    public static final String ACTION_VIEW = "android.intent.action.VIEW";
+    public static final String CATEGORY_OPENABLE = "android.intent.category.OPENABLE";
+    public static final int FLAG_GRANT_READ_URI_PERMISSION = 0x00000001;
+    public static final int FLAG_GRANT_WRITE_URI_PERMISSION = 0x00000002;
+    public static final int FLAG_ACTIVITY_NEW_TASK = 0x10000000;
+
+    public Intent() {
+    }
+
+    public Intent(String action) {
+    }
+
+    public Intent setType(String type) {
+        return this;
+    }
+
+    public Intent addCategory(String category) {
+        return this;
+    }
+
+    public Intent addFlags(int flags) {
+        return this;
+    }
+
+    public Intent setDataAndType(Uri data, String type) {
+        return this;
+    }
+}
@@ -0,0 +1,6 @@
+package android.database;
+
+public class DatabaseUtils {
+    public static void dumpCursor(Cursor cursor) {
+    }
+}
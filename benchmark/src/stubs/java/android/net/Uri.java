@@ -0,0 +1,86 @@
+package android.net;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Backed by {@link URI}; enough for the file and content Uris the benchmarks build.
+ */
+public final class Uri {
+    private final URI uri;
+
+    private Uri(URI uri) {
+        this.uri = uri;
+    }
+
+    public static Uri parse(String uriString) {
+        return new Uri(URI.create(uriString));
+    }
+
+    public static Uri fromFile(File file) {
+        return new Uri(file.toURI());
+    }
+
+    public String getScheme() {
+        return uri.getScheme();
+    }
+
+    public String getAuthority() {
+        return uri.getAuthority();
+    }
+
+    public String getHost() {
+        return uri.getHost();
+    }
+
+    public int getPort() {
+        return uri.getPort();
+    }
+
+    public String getPath() {
+        return uri.getPath();
+    }
+
+    public String getQuery() {
+        return uri.getQuery();
+    }
+
+    public String getFragment() {
+        return uri.getFragment();
+    }
+
+    public List<String> getPathSegments() {
+        List<String> segments = new ArrayList<>();
+        if (uri.getPath() != null) {
+            for (String segment : Arrays.asList(uri.getPath().split("/"))) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    public String getLastPathSegment() {
+        List<String> segments = getPathSegments();
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Uri && uri.equals(((Uri) o).uri);
+    }
+
+    @Override
+    public int hashCode() {
+        return uri.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package android.os;
+
+public final class CancellationSignal {
+    private volatile boolean canceled;
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    public void throwIfCanceled() {
+        if (canceled) {
+            throw new OperationCanceledException();
+        }
+    }
+
+    public void cancel() {
+        canceled = true;
+    }
+}
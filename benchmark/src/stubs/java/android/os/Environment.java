@@ -0,0 +1,15 @@
+package android.os;
+
+import java.io.File;
+
+public class Environment {
+    public static final String DIRECTORY_DOWNLOADS = "Download";
+
+    public static File getExternalStorageDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    public static File getExternalStoragePublicDirectory(String type) {
+        return new File(getExternalStorageDirectory(), type);
+    }
+}
@@ -0,0 +1,44 @@
+package android.os;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class ParcelFileDescriptor implements Closeable {
+    public static final int MODE_READ_ONLY = 0x10000000;
+    public static final int MODE_READ_WRITE = 0x30000000;
+
+    private final RandomAccessFile file;
+
+    private ParcelFileDescriptor(RandomAccessFile file) {
+        this.file = file;
+    }
+
+    public static ParcelFileDescriptor open(File file, int mode) throws FileNotFoundException {
+        return new ParcelFileDescriptor(new RandomAccessFile(file, mode == MODE_READ_ONLY ? "r" : "rw"));
+    }
+
+    public FileDescriptor getFileDescriptor() {
+        try {
+            return file.getFD();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getStatSize() {
+        try {
+            return file.length();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
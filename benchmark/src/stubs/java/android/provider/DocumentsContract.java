@@ -0,0 +1,21 @@
+package android.provider;
+
+import android.content.Context;
+import android.net.Uri;
+
+public final class DocumentsContract {
+    public static boolean isDocumentUri(Context context, Uri uri) {
+        return false;
+    }
+
+    public static String getDocumentId(Uri documentUri) {
+        return null;
+    }
+
+    public static final class Document {
+        public static final String COLUMN_DISPLAY_NAME = OpenableColumns.DISPLAY_NAME;
+        public static final String COLUMN_SIZE = OpenableColumns.SIZE;
+        public static final String COLUMN_MIME_TYPE = "mime_type";
+        public static final String COLUMN_LAST_MODIFIED = "last_modified";
+    }
+}
@@ -0,0 +1,39 @@
+package android.provider;
+
+import android.net.Uri;
+
+public final class MediaStore {
+    public static final String AUTHORITY = "media";
+
+    public interface MediaColumns {
+        String _ID = "_id";
+        String DATA = "_data";
+        String DISPLAY_NAME = "_display_name";
+        String SIZE = "_size";
+        String MIME_TYPE = "mime_type";
+        String DATE_MODIFIED = "date_modified";
+    }
+
+    public static final class Files {
+        public interface FileColumns extends MediaColumns {
+        }
+    }
+
+    public static final class Images {
+        public static final class Media {
+            public static final Uri EXTERNAL_CONTENT_URI = Uri.parse("content://media/external/images/media");
+        }
+    }
+
+    public static final class Video {
+        public static final class Media {
+            public static final Uri EXTERNAL_CONTENT_URI = Uri.parse("content://media/external/video/media");
+        }
+    }
+
+    public static final class Audio {
+        public static final class Media {
+            public static final Uri EXTERNAL_CONTENT_URI = Uri.parse("content://media/external/audio/media");
+        }
+    }
+}
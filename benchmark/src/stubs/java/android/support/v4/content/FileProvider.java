@@ -0,0 +1,12 @@
+package android.support.v4.content;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.File;
+
+public class FileProvider {
+    public static Uri getUriForFile(Context context, String authority, File file) {
+        return Uri.fromFile(file);
+    }
+}
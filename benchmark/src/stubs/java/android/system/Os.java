@@ -0,0 +1,19 @@
+package android.system;
+
+/**
+ * Hard links are unsupported off-device; {@code Build.VERSION.SDK_INT} is 0 so the library never
+ * gets here.
+ */
+public final class Os {
+    public static void link(String oldPath, String newPath) throws ErrnoException {
+        throw new ErrnoException("link", 38);
+    }
+
+    public static void rename(String oldPath, String newPath) throws ErrnoException {
+        throw new ErrnoException("rename", 38);
+    }
+
+    public static StructStat stat(String path) throws ErrnoException {
+        throw new ErrnoException("stat", 38);
+    }
+}
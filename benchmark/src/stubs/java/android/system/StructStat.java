@@ -0,0 +1,6 @@
+package android.system;
+
+public final class StructStat {
+    public long st_ino;
+    public long st_nlink;
+}
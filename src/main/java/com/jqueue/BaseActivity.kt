@@ -1,62 +1,144 @@
 package com.jqueue
 
 import android.content.pm.ActivityInfo
-import android.content.pm.PackageManager
 import android.os.Bundle
-import android.util.ArrayMap
 import android.view.View
 import androidx.appcompat.app.AlertDialog
 import androidx.appcompat.app.AppCompatActivity
-import androidx.core.app.ActivityCompat
-import androidx.core.content.ContextCompat
 import com.animation.codebestpractice.R
+import java.io.FileDescriptor
+import java.io.PrintWriter
 
 
 open class BaseActivity : AppCompatActivity() {
+    private var startup: StartupProfiler.Startup? = null
+
     override fun onCreate(savedInstanceState: Bundle?) {
-        super.onCreate(savedInstanceState)
-        requestedOrientation = ActivityInfo.SCREEN_ORIENTATION_PORTRAIT
-        window.addFlags(View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION)
-        val originFlag = window.decorView.systemUiVisibility
-        window.decorView.systemUiVisibility = originFlag or View
-                .SYSTEM_UI_FLAG_LIGHT_STATUS_BAR or View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR
-        window.decorView.setPadding(0, 0, 0, if (StatusBarUtil.checkDeviceHasNavigationBar(this)) StatusBarUtil.getNavigationBarHeight(this) else 0)
-    }
-
-    val runMap = ArrayMap<Int, () -> Unit>()
-    private var requestCode: Int = 0
-    fun hasPermission(vararg permission: String) = permission.asList().filter {
-        ContextCompat.checkSelfPermission(
-                this,
-                it
-        ) != PackageManager.PERMISSION_GRANTED
-    }.isEmpty()
-
-    fun requestPermission(vararg permissions: String, requestCode: Int, run: () -> Unit) {
-        ActivityCompat.requestPermissions(this, permissions, requestCode)
-        this.requestCode = requestCode
-        runMap[requestCode] = run
+        startup = StartupProfiler.onCreateStarted(this)
+        StartupProfiler.trace("BaseActivity.super.onCreate") {
+            super.onCreate(savedInstanceState)
+        }
+        StartupProfiler.trace("BaseActivity.windowFlags") {
+            requestedOrientation = ActivityInfo.SCREEN_ORIENTATION_PORTRAIT
+            // 内容布局到导航栏下方，由 windowInsets 按导航栏高度给 decorView 加底部 padding
+            val originFlag = window.decorView.systemUiVisibility
+            window.decorView.systemUiVisibility = originFlag or View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION or
+                    View.SYSTEM_UI_FLAG_LIGHT_STATUS_BAR or View.SYSTEM_UI_FLAG_LIGHT_NAVIGATION_BAR
+        }
+    }
+
+    override fun onPostCreate(savedInstanceState: Bundle?) {
+        super.onPostCreate(savedInstanceState)
+        // 子类的 onCreate 已经执行完，此时再安装不会影响 supportRequestWindowFeature
+        StartupProfiler.trace("BaseActivity.windowInsets") {
+            windowInsets
+        }
+        startup?.onCreateFinished(window.decorView)
+    }
+
+    override fun onDestroy() {
+        startup?.cancel()
+        startup = null
+        super.onDestroy()
+    }
+
+    override fun onResume() {
+        super.onResume()
+        // 用户可能在设置页修改了授权
+        PermissionState.refresh(this)
     }
 
+    override fun dump(prefix: String, fd: FileDescriptor?, writer: PrintWriter, args: Array<out String>?) {
+        super.dump(prefix, fd, writer, args)
+        if (StartupProfiler.enabled) {
+            StartupProfiler.dump(prefix, writer)
+        }
+    }
+
+    /**
+     * 子类可以注册自己的 View 以避开系统栏和刘海
+     *
+     * 安装在 decorView 上，收到的是未被消费的 insets；decorView 避开底部导航栏，旋转、分屏时随 insets 更新，
+     * 底部 insets 由此消费，AppCompat 内 fitsSystemWindows 的布局不会再重复避让。
+     * 第一次访问时才安装，访问 decorView 不会提前创建 AppCompat 的 subDecor。
+     */
+    val windowInsets: WindowInsetsDispatcher by lazy(LazyThreadSafetyMode.NONE) {
+        WindowInsetsDispatcher.install(window.decorView, WindowInsetsDispatcher.BOTTOM).also {
+            it.register(it.host, WindowInsetsDispatcher.BOTTOM, includeCutout = false)
+        }
+    }
+
+    /**
+     * 权限请求协调器，同一帧内的请求合并为一次系统弹窗
+     */
+    val permissionCoordinator by lazy(LazyThreadSafetyMode.NONE) { PermissionCoordinator(this) }
+    private var authorizationDialog: AlertDialog? = null
+
+    /**
+     * 读取 [PermissionState] 缓存，不分配对象，可在高频路径中调用
+     */
+    fun hasPermission(vararg permission: String) = PermissionState.isGranted(this, permission)
+
+    /**
+     * 单个权限的重载，调用处也不必创建 vararg 数组
+     */
+    fun hasPermission(permission: String) = PermissionState.isGranted(this, permission)
+
+    /**
+     * 请求统一由 [permissionCoordinator] 以它自己的 requestCode 发起，[requestCode] 不会被使用
+     */
+    @Deprecated(
+        "requestCode is ignored; results are delivered through the callback",
+        ReplaceWith("requestPermission(*permissions, run = run)")
+    )
+    @Suppress("UNUSED_PARAMETER")
+    fun requestPermission(vararg permissions: String, requestCode: Int, run: () -> Unit) =
+        requestPermission(*permissions, run = run)
+
+    /**
+     * 全部授权后执行 [run]，有被拒绝的权限时弹出一次去设置授权的提示；
+     * 需要自己处理拒绝结果时使用 [permissionCoordinator] 的 request 或 [awaitPermission]
+     */
+    fun requestPermission(vararg permissions: String, run: () -> Unit) {
+        permissionCoordinator.request(permissions) { result ->
+            if (result.allGranted) {
+                run()
+            } else {
+                showAuthorizationDialog()
+            }
+        }
+    }
+
+    /**
+     * [requestPermission] 的挂起版本，结果由调用方处理
+     */
+    suspend fun awaitPermission(vararg permissions: String): PermissionResult =
+        permissionCoordinator.await(*permissions)
+
     override fun onRequestPermissionsResult(
             requestCode: Int,
             permissions: Array<out String>,
             grantResults: IntArray
     ) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults)
-        if (requestCode == this.requestCode && grantResults.asList().filter { it != PackageManager.PERMISSION_GRANTED }.isEmpty()) {
-            runMap[requestCode]?.invoke()
-            runMap.remove(requestCode)
-        } else {
-            AlertDialog.Builder(this).setTitle(R.string.authorization)
-                    .setMessage(R.string.authorization_message)
-                    .setNegativeButton(R.string.cancel) { _, _ ->
-                        finish()
-                    }
-                    .setPositiveButton(R.string.to_auth) { _, _ ->
-                        getAppDetailSettingIntent(this)
-                        finish()
-                    }.create().show()
+        if (!permissionCoordinator.onRequestPermissionsResult(requestCode, permissions, grantResults)) {
+            // 子类或 Fragment 自己发起的请求，结果同样写入缓存
+            PermissionState.update(permissions, grantResults)
+        }
+    }
+
+    private fun showAuthorizationDialog() {
+        if (authorizationDialog?.isShowing == true || isFinishing) {
+            return
         }
+        authorizationDialog = AlertDialog.Builder(this).setTitle(R.string.authorization)
+                .setMessage(R.string.authorization_message)
+                .setNegativeButton(R.string.cancel, null)
+                .setPositiveButton(R.string.to_auth) { _, _ ->
+                    getAppDetailSettingIntent(this)
+                }
+                .setOnDismissListener { authorizationDialog = null }
+                .create()
+                .apply { show() }
     }
 }
@@ -0,0 +1,106 @@
+package com.jqueue;
+
+import java.util.ArrayDeque;
+
+/**
+ * Small process-wide pool of reusable {@code byte[]} buffers, bucketed by size class.
+ * Buffers are handed out with {@link #acquire(int)} and must be given back with
+ * {@link #release(byte[])} once the caller is done with them.
+ */
+public final class BufferPool {
+    /**
+     * Size classes, smallest first. A request is served by the first class that fits.
+     */
+    private static final int[] SIZE_CLASSES = {
+            8 * 1024, 32 * 1024, 128 * 1024, 512 * 1024
+    };
+    private static final int MAX_POOLED_PER_CLASS = 4;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ArrayDeque<byte[]>[] POOLS = new ArrayDeque[SIZE_CLASSES.length];
+
+    static {
+        for (int i = 0; i < POOLS.length; i++) {
+            POOLS[i] = new ArrayDeque<>(MAX_POOLED_PER_CLASS);
+        }
+    }
+
+    private BufferPool() {
+    }
+
+    public static int minSize() {
+        return SIZE_CLASSES[0];
+    }
+
+    public static int maxSize() {
+        return SIZE_CLASSES[SIZE_CLASSES.length - 1];
+    }
+
+    /**
+     * @return The smallest size class that is at least {@code size} bytes, or
+     * {@link #maxSize()} if the request is larger than every class.
+     */
+    public static int sizeClass(int size) {
+        for (int sizeClass : SIZE_CLASSES) {
+            if (size <= sizeClass) {
+                return sizeClass;
+            }
+        }
+        return maxSize();
+    }
+
+    /**
+     * @return The next larger size class, or {@code size} itself if it is already the largest.
+     */
+    public static int nextSizeClass(int size) {
+        for (int sizeClass : SIZE_CLASSES) {
+            if (sizeClass > size) {
+                return sizeClass;
+            }
+        }
+        return maxSize();
+    }
+
+    /**
+     * Takes a buffer of at least {@code size} bytes (capped at {@link #maxSize()}) from the pool,
+     * allocating a new one when the pool is empty.
+     */
+    public static byte[] acquire(int size) {
+        int index = indexOf(sizeClass(size));
+        ArrayDeque<byte[]> pool = POOLS[index];
+        byte[] buffer;
+        synchronized (pool) {
+            buffer = pool.pollFirst();
+        }
+        return buffer != null ? buffer : new byte[SIZE_CLASSES[index]];
+    }
+
+    /**
+     * Gives a buffer obtained from {@link #acquire(int)} back to the pool. Buffers that do not
+     * match a size class are dropped.
+     */
+    public static void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        int index = indexOf(buffer.length);
+        if (index < 0) {
+            return;
+        }
+        ArrayDeque<byte[]> pool = POOLS[index];
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED_PER_CLASS) {
+                pool.offerFirst(buffer);
+            }
+        }
+    }
+
+    private static int indexOf(int sizeClass) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (SIZE_CLASSES[i] == sizeClass) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,456 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+/**
+ * Content-addressed storage for documents imported into
+ * {@link FileUtils#getDocumentCacheDir(Context)}.
+ * <p>
+ * Every import is hashed (SHA-256) while it streams to disk. The content is kept once as a blob in
+ * the hidden {@code .blobs} directory, named after its digest, and the file handed out under the
+ * document's display name is a hard link to that blob. Importing content that is already stored
+ * discards the freshly streamed copy instead of keeping a second one, and reuses the existing
+ * display file when the name matches. A small index maps display names to digests and to the file
+ * handed out for them.
+ * <p>
+ * Sources are remembered by Uri together with their size and last-modified time. Re-importing a
+ * Uri whose size and last-modified time are unchanged and whose blob is still stored skips the
+ * copy entirely. A new Uri whose size and last-modified time equal those of a remembered source is
+ * likely the same document reached through another provider; it is hashed before it is copied and
+ * not copied at all if its content is already stored. Any other duplicate is still streamed into
+ * the store once and only discarded after hashing.
+ * <p>
+ * Display files share the blob's inode and therefore its permissions and content. Blobs are made
+ * read-only, so display files are too; callers that need to modify a document must copy it first,
+ * since a change through one link would change every document with the same content.
+ * <p>
+ * Concurrent imports of the same Uri share one copy; callers that join an import already in flight
+ * get no progress callbacks of their own.
+ * <p>
+ * Hard links need API 21; older devices fall back to plain imports.
+ */
+public final class ContentAddressedStore {
+    static final String TAG = "ContentAddressedStore";
+    public static final String BLOB_DIR = FileUtils.HIDDEN_PREFIX + "blobs";
+    private static final String INDEX = "index";
+    private static final String SOURCES = "sources";
+    private static final String INCOMING_PREFIX = "incoming";
+    /**
+     * Age after which an incoming file is considered left over by a killed import.
+     */
+    private static final long STALE_INCOMING_MS = 24L * 60 * 60 * 1000;
+
+    private static ContentAddressedStore sInstance;
+
+    private final File documentDir;
+    private final File blobDir;
+    private final File indexFile;
+    private final File sourcesFile;
+    // display name -> digest '/' file name
+    private final Properties index = new Properties();
+    // uri -> digest '/' size ':' last modified
+    private final Properties sources = new Properties();
+    private final SingleFlight<Uri, File> imports = new SingleFlight<>();
+
+    private ContentAddressedStore(File documentDir) {
+        this.documentDir = documentDir;
+        this.blobDir = new File(documentDir, BLOB_DIR);
+        this.indexFile = new File(blobDir, INDEX);
+        this.sourcesFile = new File(blobDir, SOURCES);
+        if (!blobDir.exists()) {
+            blobDir.mkdirs();
+        }
+        load(indexFile, index);
+        load(sourcesFile, sources);
+    }
+
+    public static synchronized ContentAddressedStore get(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new ContentAddressedStore(FileUtils.getDocumentCacheDir(context.getApplicationContext()));
+        }
+        return sInstance;
+    }
+
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    /**
+     * Imports {@code uri} into the document cache under its display name.
+     *
+     * @return The imported file, or null if no file could be created for it.
+     */
+    @Nullable
+    public File importUri(@NonNull final Context context, @NonNull final Uri uri,
+                          @Nullable final UriImporter.ProgressListener listener,
+                          @Nullable final CancellationSignal signal) throws IOException {
+        while (true) {
+            try {
+                return imports.execute(uri, new Callable<File>() {
+                    @Override
+                    public File call() throws IOException {
+                        return importOnce(context, uri, listener, signal);
+                    }
+                });
+            } catch (OperationCanceledException e) {
+                if (signal != null && signal.isCanceled()) {
+                    throw e;
+                }
+                // the caller that ran the shared import was cancelled, not this one
+            }
+        }
+    }
+
+    private File importOnce(Context context, Uri uri, UriImporter.ProgressListener listener,
+                            CancellationSignal signal) throws IOException {
+        if (!isSupported()) {
+            return UriImporter.importToCache(context, uri, listener, signal);
+        }
+        String name = UriImporter.getDisplayName(context, uri);
+        if (name == null) {
+            return null;
+        }
+        // a stale cached size or date would let changed content pass as unchanged
+        FileUtils.getMetadataCache().invalidate(uri);
+        String fingerprint = fingerprint(FileUtils.getMetadata(context, uri));
+        String source = uri.toString();
+        if (fingerprint != null) {
+            File file = reuse(source, fingerprint, name);
+            if (file == null && isKnownFingerprint(source, fingerprint)) {
+                // reading the source twice on a miss is cheaper than writing a duplicate
+                String hex = hash(context, uri);
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                file = hex != null ? handOutIfStored(hex, name) : null;
+                if (file != null) {
+                    remember(source, fingerprint, hex);
+                }
+            }
+            if (file != null) {
+                DocumentCache.get(context).recordWrite(file);
+                return file;
+            }
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        File incoming = File.createTempFile(INCOMING_PREFIX, null, blobDir);
+        File file;
+        try {
+            UriImporter.importUri(context, uri, incoming, listener, signal, digest);
+            String hex = FileDigest.toHex(digest.digest());
+            file = commit(incoming, name, hex);
+            if (fingerprint != null) {
+                remember(source, fingerprint, hex);
+            }
+        } finally {
+            if (incoming.exists()) {
+                incoming.delete();
+            }
+        }
+        DocumentCache.get(context).recordWrite(file);
+        return file;
+    }
+
+    /**
+     * @return The digest of the content stored under {@code displayName}, or null if unknown.
+     */
+    @Nullable
+    public synchronized String getDigest(@NonNull String displayName) {
+        String entry = index.getProperty(displayName);
+        return entry != null ? digestOf(entry) : null;
+    }
+
+    /**
+     * Runs {@link #collectGarbage()} if the store is in use; called after cache evictions.
+     */
+    static void onFilesEvicted() {
+        ContentAddressedStore store;
+        synchronized (ContentAddressedStore.class) {
+            store = sInstance;
+        }
+        if (store != null) {
+            store.collectGarbage();
+        }
+    }
+
+    /**
+     * Deletes blobs that no display file links to any more (e.g. after {@link DocumentCache}
+     * evicted them) and drops index entries for them.
+     */
+    public synchronized void collectGarbage() {
+        if (!isSupported()) {
+            return;
+        }
+        File[] blobs = blobDir.listFiles();
+        if (blobs == null) {
+            return;
+        }
+        for (File blob : blobs) {
+            String name = blob.getName();
+            if (name.startsWith(INCOMING_PREFIX)) {
+                if (System.currentTimeMillis() - blob.lastModified() > STALE_INCOMING_MS) {
+                    blob.delete();
+                }
+                continue;
+            }
+            if (name.startsWith(INDEX) || name.startsWith(SOURCES) || name.startsWith(FileUtils.HIDDEN_PREFIX)) {
+                continue;
+            }
+            try {
+                if (Os.stat(blob.getPath()).st_nlink <= 1) {
+                    blob.delete();
+                }
+            } catch (ErrnoException e) {
+                Log.w(TAG, "Unable to stat " + blob, e);
+            }
+        }
+        if (dropMissingBlobs(index)) {
+            store(indexFile, index);
+        }
+        if (dropMissingBlobs(sources)) {
+            store(sourcesFile, sources);
+        }
+    }
+
+    /**
+     * Removes entries whose value starts with the digest of a blob that is no longer stored.
+     *
+     * @return Whether anything was removed.
+     */
+    private boolean dropMissingBlobs(Properties properties) {
+        boolean changed = false;
+        Iterator<Map.Entry<Object, Object>> iterator = properties.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Object> entry = iterator.next();
+            if (!new File(blobDir, digestOf((String) entry.getValue())).exists()) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Stores {@code incoming} as blob {@code hex} unless that content is already stored, then hands
+     * out a display file for it. Runs under the store lock so {@link #collectGarbage()} cannot drop
+     * the blob before it is linked.
+     */
+    private synchronized File commit(File incoming, String name, String hex) throws IOException {
+        File blob = new File(blobDir, hex);
+        if (blob.exists()) {
+            // duplicate content, keep the stored blob
+            incoming.delete();
+        } else if (!incoming.renameTo(blob)) {
+            throw new IOException("Unable to store blob " + blob);
+        }
+        return handOut(name, blob);
+    }
+
+    /**
+     * @return A display file for the stored blob {@code hex}, or null if it is not stored.
+     */
+    private synchronized File handOutIfStored(String hex, String name) throws IOException {
+        File blob = new File(blobDir, hex);
+        return blob.exists() ? handOut(name, blob) : null;
+    }
+
+    /**
+     * @return A display file for the blob {@code source} was last imported into, or null if the
+     * source changed since or the blob is gone.
+     */
+    private synchronized File reuse(String source, String fingerprint, String name) throws IOException {
+        String entry = sources.getProperty(source);
+        if (entry == null || !entry.endsWith('/' + fingerprint)) {
+            return null;
+        }
+        return handOutIfStored(digestOf(entry), name);
+    }
+
+    /**
+     * @return Whether another remembered source has the size and last-modified time
+     * {@code fingerprint} and its blob is still stored.
+     */
+    private synchronized boolean isKnownFingerprint(String source, String fingerprint) {
+        String suffix = '/' + fingerprint;
+        for (Map.Entry<Object, Object> entry : sources.entrySet()) {
+            String value = (String) entry.getValue();
+            if (value.endsWith(suffix) && !source.equals(entry.getKey())
+                    && new File(blobDir, digestOf(value)).exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void remember(String source, String fingerprint, String hex) {
+        sources.setProperty(source, hex + '/' + fingerprint);
+        store(sourcesFile, sources);
+    }
+
+    /**
+     * Returns the display file indexed for {@code name} if it still links to {@code blob},
+     * otherwise links a new one and indexes it, whatever name it got. Called under the store lock.
+     */
+    private File handOut(String name, File blob) throws IOException {
+        String hex = blob.getName();
+        String entry = index.getProperty(name);
+        if (entry != null && hex.equals(digestOf(entry))) {
+            File existing = new File(documentDir, fileNameOf(entry, name));
+            if (isLinkTo(existing, blob)) {
+                return existing;
+            }
+        }
+        // shared by every link; blobs stored before display files were read-only get it here
+        blob.setReadOnly();
+        File file = FileUtils.generateFileName(name, documentDir);
+        if (file == null) {
+            throw new IOException("Unable to create " + name + " in " + documentDir);
+        }
+        // link under a temporary name and rename it over the empty file generateFileName reserved,
+        // so the name is never free for another claimer
+        File link = File.createTempFile(INCOMING_PREFIX, null, blobDir);
+        try {
+            link.delete();
+            Os.link(blob.getPath(), link.getPath());
+            Os.rename(link.getPath(), file.getPath());
+        } catch (ErrnoException e) {
+            file.delete();
+            throw new IOException("Unable to link " + file + " to blob " + hex, e);
+        } finally {
+            if (link.exists()) {
+                link.delete();
+            }
+        }
+        index.setProperty(name, hex + '/' + file.getName());
+        store(indexFile, index);
+        return file;
+    }
+
+    /**
+     * @return The hex SHA-256 of the content of {@code uri}, or null if it cannot be opened.
+     */
+    @Nullable
+    private static String hash(Context context, Uri uri) throws IOException {
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            return FileDigest.toHex(FileDigest.digest(inputStream, FileDigest.Algorithm.SHA_256));
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    /**
+     * @return "size:lastModified" of the source, or null if either is unknown.
+     */
+    @Nullable
+    private static String fingerprint(UriMetadata metadata) {
+        if (metadata.size == UriMetadata.UNKNOWN || metadata.lastModified == UriMetadata.UNKNOWN) {
+            return null;
+        }
+        return metadata.size + ":" + metadata.lastModified;
+    }
+
+    /**
+     * @return The digest at the start of an index or sources value.
+     */
+    private static String digestOf(String entry) {
+        int slash = entry.indexOf('/');
+        // index entries written before file names were recorded are the bare digest
+        return slash < 0 ? entry : entry.substring(0, slash);
+    }
+
+    /**
+     * @return The file name of an index value, {@code name} for entries that have none.
+     */
+    private static String fileNameOf(String entry, String name) {
+        int slash = entry.indexOf('/');
+        return slash < 0 ? name : entry.substring(slash + 1);
+    }
+
+    private static boolean isLinkTo(File file, File blob) {
+        try {
+            return Os.stat(file.getPath()).st_ino == Os.stat(blob.getPath()).st_ino;
+        } catch (ErrnoException e) {
+            return false;
+        }
+    }
+
+    private static void load(File file, Properties properties) {
+        if (!file.exists()) {
+            return;
+        }
+        FileInputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            properties.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Discarding unreadable " + file, e);
+            properties.clear();
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    private void store(File file, Properties properties) {
+        File tmp = new File(blobDir, file.getName() + ".tmp");
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(tmp);
+            properties.store(outputStream, null);
+            outputStream.close();
+            outputStream = null;
+            if (!tmp.renameTo(file)) {
+                Log.w(TAG, "Unable to replace " + file);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to store " + file, e);
+        } finally {
+            close(outputStream);
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.os.FileObserver;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of directory listings, stored under {@code cacheDir/dir_index}.
+ * <p>
+ * For every indexed directory the index keeps name, size, last-modified time, MIME type and
+ * whether the entry is a directory. A directory is only listed and stat'ed again when its own
+ * last-modified time differs from the one recorded in the index, or when a {@link FileObserver}
+ * registered with {@link #watch(File)} reported a change inside it. The directory time alone does
+ * not change when an existing file is rewritten in place, so directories whose files change
+ * content should be watched.
+ */
+public final class DirectoryIndex {
+    static final String TAG = "DirectoryIndex";
+    public static final String INDEX_DIR = "dir_index";
+    private static final int VERSION = 1;
+    private static final int MEMORY_ENTRIES = 32;
+    /**
+     * Directory times within this distance of the scan time are not trusted, since a change in
+     * the same timestamp tick would go unnoticed (coarse mtime granularity on some file systems).
+     */
+    private static final long RACY_WINDOW_MS = 2000;
+    private static final int OBSERVED_EVENTS = FileObserver.CREATE | FileObserver.DELETE
+            | FileObserver.MOVED_FROM | FileObserver.MOVED_TO | FileObserver.CLOSE_WRITE
+            | FileObserver.ATTRIB | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+    private static DirectoryIndex sInstance;
+
+    private final File indexDir;
+    private final LruCache<String, Listing> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> dirty = new ConcurrentHashMap<>();
+    private final Map<String, FileObserver> observers = new HashMap<>();
+
+    /**
+     * Directory entries sorted by name, ignoring case.
+     */
+    public static final Comparator<Entry> BY_NAME = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.name.compareToIgnoreCase(e2.name);
+        }
+    };
+    /**
+     * Directories first, then by name.
+     */
+    public static final Comparator<Entry> DIRECTORIES_FIRST = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            if (e1.isDirectory != e2.isDirectory) {
+                return e1.isDirectory ? -1 : 1;
+            }
+            return BY_NAME.compare(e1, e2);
+        }
+    };
+    public static final Comparator<Entry> BY_SIZE = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.size < e2.size ? -1 : (e1.size == e2.size ? BY_NAME.compare(e1, e2) : 1);
+        }
+    };
+    /**
+     * Newest first.
+     */
+    public static final Comparator<Entry> BY_LAST_MODIFIED = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.lastModified > e2.lastModified ? -1
+                    : (e1.lastModified == e2.lastModified ? BY_NAME.compare(e1, e2) : 1);
+        }
+    };
+
+    public static final class Entry {
+        public final String name;
+        public final long size;
+        public final long lastModified;
+        /**
+         * Null for directories.
+         */
+        @Nullable
+        public final String mimeType;
+        public final boolean isDirectory;
+
+        Entry(String name, long size, long lastModified, @Nullable String mimeType, boolean isDirectory) {
+            this.name = name;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mimeType = mimeType;
+            this.isDirectory = isDirectory;
+        }
+
+        public boolean isHidden() {
+            return name.startsWith(FileUtils.HIDDEN_PREFIX);
+        }
+
+        public File getFile(File directory) {
+            return new File(directory, name);
+        }
+    }
+
+    private static final class Listing {
+        final long directoryLastModified;
+        final long scanTime;
+        // sorted BY_NAME
+        final List<Entry> entries;
+
+        Listing(long directoryLastModified, long scanTime, List<Entry> entries) {
+            this.directoryLastModified = directoryLastModified;
+            this.scanTime = scanTime;
+            this.entries = entries;
+        }
+
+        boolean isCurrent(File directory) {
+            long lastModified = directory.lastModified();
+            return lastModified == directoryLastModified
+                    && Math.abs(scanTime - lastModified) > RACY_WINDOW_MS;
+        }
+    }
+
+    private DirectoryIndex(File indexDir) {
+        this.indexDir = indexDir;
+    }
+
+    public static synchronized DirectoryIndex get(@NonNull Context context) {
+        if (sInstance == null) {
+            File dir = new File(context.getApplicationContext().getCacheDir(), INDEX_DIR);
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            sInstance = new DirectoryIndex(dir);
+        }
+        return sInstance;
+    }
+
+    /**
+     * @return The non-hidden entries of {@code directory}, sorted by name.
+     */
+    @NonNull
+    public List<Entry> list(@NonNull File directory) {
+        return list(directory, false);
+    }
+
+    /**
+     * @return The entries of {@code directory}, sorted by name; empty if it cannot be listed.
+     */
+    @NonNull
+    public List<Entry> list(@NonNull File directory, boolean includeHidden) {
+        List<Entry> entries = getListing(directory).entries;
+        if (includeHidden) {
+            return entries;
+        }
+        List<Entry> visible = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (!entry.isHidden()) {
+                visible.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(visible);
+    }
+
+    /**
+     * @return The non-hidden entries of {@code directory} in the given order.
+     */
+    @NonNull
+    public List<Entry> list(@NonNull File directory, @NonNull Comparator<Entry> order) {
+        List<Entry> entries = list(directory, false);
+        if (order == BY_NAME) {
+            return entries;
+        }
+        List<Entry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, order);
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Forces the next {@link #list(File)} of {@code directory} to scan it again.
+     */
+    public void invalidate(@NonNull File directory) {
+        String path = directory.getAbsolutePath();
+        dirty.put(path, Boolean.TRUE);
+        memory.remove(path);
+    }
+
+    /**
+     * Starts watching {@code directory} so changes inside it, including in-place writes, invalidate
+     * its listing. Watching is not recursive.
+     */
+    public void watch(@NonNull final File directory) {
+        final String path = directory.getAbsolutePath();
+        synchronized (observers) {
+            if (observers.containsKey(path)) {
+                return;
+            }
+            FileObserver observer = new FileObserver(path, OBSERVED_EVENTS) {
+                @Override
+                public void onEvent(int event, @Nullable String name) {
+                    invalidate(directory);
+                }
+            };
+            observers.put(path, observer);
+            observer.startWatching();
+        }
+    }
+
+    public void unwatch(@NonNull File directory) {
+        FileObserver observer;
+        synchronized (observers) {
+            observer = observers.remove(directory.getAbsolutePath());
+        }
+        if (observer != null) {
+            observer.stopWatching();
+        }
+    }
+
+    /**
+     * Deletes every stored listing.
+     */
+    public void clear() {
+        memory.evictAll();
+        File[] files = indexDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    private Listing getListing(File directory) {
+        String path = directory.getAbsolutePath();
+        Object lock = locks.get(path);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = locks.putIfAbsent(path, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        synchronized (lock) {
+            boolean wasDirty = dirty.remove(path) != null;
+            Listing listing = wasDirty ? null : memory.get(path);
+            if (listing == null && !wasDirty) {
+                listing = read(path);
+            }
+            if (listing == null || !listing.isCurrent(directory)) {
+                listing = scan(directory);
+                write(path, listing);
+            }
+            memory.put(path, listing);
+            return listing;
+        }
+    }
+
+    private static Listing scan(File directory) {
+        long directoryLastModified = directory.lastModified();
+        long scanTime = System.currentTimeMillis();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new Listing(directoryLastModified, scanTime, Collections.<Entry>emptyList());
+        }
+        MimeTypeRegistry registry = MimeTypeRegistry.getInstance();
+        List<Entry> entries = new ArrayList<>(files.length);
+        for (File file : files) {
+            boolean isDirectory = file.isDirectory();
+            String mimeType = null;
+            if (!isDirectory) {
+                mimeType = registry.getMimeType(file.getName());
+                if (mimeType == null) {
+                    mimeType = MimeTypeRegistry.DEFAULT_MIME_TYPE;
+                }
+            }
+            entries.add(new Entry(file.getName(), isDirectory ? 0 : file.length(), file.lastModified(),
+                    mimeType, isDirectory));
+        }
+        Collections.sort(entries, BY_NAME);
+        return new Listing(directoryLastModified, scanTime, Collections.unmodifiableList(entries));
+    }
+
+    private File indexFile(String path) {
+        return new File(indexDir, Integer.toHexString(path.hashCode()) + ".idx");
+    }
+
+    @Nullable
+    private Listing read(String path) {
+        File file = indexFile(path);
+        if (!file.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            // the file name is a hash, so the path is stored to detect collisions
+            if (in.readInt() != VERSION || !path.equals(in.readUTF())) {
+                return null;
+            }
+            long directoryLastModified = in.readLong();
+            long scanTime = in.readLong();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                boolean isDirectory = in.readBoolean();
+                String mimeType = isDirectory ? null : in.readUTF();
+                entries.add(new Entry(name, size, lastModified, mimeType, isDirectory));
+            }
+            return new Listing(directoryLastModified, scanTime, Collections.unmodifiableList(entries));
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable index for " + path, e);
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    private void write(String path, Listing listing) {
+        File file = indexFile(path);
+        File tmp = new File(indexDir, file.getName() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(VERSION);
+            out.writeUTF(path);
+            out.writeLong(listing.directoryLastModified);
+            out.writeLong(listing.scanTime);
+            out.writeInt(listing.entries.size());
+            for (Entry entry : listing.entries) {
+                out.writeUTF(entry.name);
+                out.writeLong(entry.size);
+                out.writeLong(entry.lastModified);
+                out.writeBoolean(entry.isDirectory);
+                if (!entry.isDirectory) {
+                    out.writeUTF(entry.mimeType);
+                }
+            }
+            out.close();
+            out = null;
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to store index for " + path, e);
+            tmp.delete();
+        } finally {
+            close(out);
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Size-bounded management of {@link FileUtils#getDocumentCacheDir(Context)}.
+ * <p>
+ * Files written into the document cache are registered with {@link #recordWrite(File)} and
+ * every later use with {@link #recordAccess(File)}. The resulting least-recently-used order is
+ * kept in an append-only journal ({@code .journal} in the cache directory) so it survives process
+ * restarts. Whenever the cache grows beyond its byte budget a background trim deletes the least
+ * recently used files, except the most recently used one, which is typically the file just
+ * imported or just handed out by {@code getPath}. Hidden files such as the journal and partial
+ * imports are not managed.
+ * <p>
+ * The journal is read on the cache thread, so {@link #get(Context)} may be called on the main
+ * thread. Writes and accesses recorded before it has been read are replayed once it has.
+ */
+public final class DocumentCache {
+    static final String TAG = "DocumentCache";
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    private static final String JOURNAL = FileUtils.HIDDEN_PREFIX + "journal";
+    private static final String JOURNAL_TMP = JOURNAL + ".tmp";
+    private static final char ACCESS = 'A';
+    private static final char WRITE = 'W';
+    private static final char REMOVE = 'R';
+    /**
+     * Journal lines per live entry before the journal is rewritten.
+     */
+    private static final int COMPACT_RATIO = 4;
+
+    private static DocumentCache sInstance;
+
+    private final File directory;
+    private final File journalFile;
+    // file name -> size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private Writer journal;
+    private int journalLines;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long size;
+    private long hitCount;
+    private long writeCount;
+    private long evictionCount;
+    private boolean trimScheduled;
+    private boolean flushScheduled;
+    private boolean compactScheduled;
+    /**
+     * Journal lines appended while a background compaction writes the new journal; null otherwise.
+     */
+    private List<String> compactBacklog;
+    /**
+     * Calls made before the journal was loaded; null once it has been.
+     */
+    private List<Runnable> pending = new ArrayList<>();
+
+    public static final class Stats {
+        public final long size;
+        public final long maxSize;
+        public final int fileCount;
+        public final long hitCount;
+        public final long writeCount;
+        public final long evictionCount;
+
+        Stats(long size, long maxSize, int fileCount, long hitCount, long writeCount, long evictionCount) {
+            this.size = size;
+            this.maxSize = maxSize;
+            this.fileCount = fileCount;
+            this.hitCount = hitCount;
+            this.writeCount = writeCount;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        public String toString() {
+            return "DocumentCache.Stats[size=" + size + "/" + maxSize + ", files=" + fileCount
+                    + ", hits=" + hitCount + ", writes=" + writeCount + ", evictions=" + evictionCount + "]";
+        }
+    }
+
+    private DocumentCache(File directory) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    public static synchronized DocumentCache get(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new DocumentCache(FileUtils.getDocumentCacheDir(context.getApplicationContext()));
+        }
+        return sInstance;
+    }
+
+    /**
+     * Sets the byte budget and trims in the background if the cache is over it.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        scheduleTrimIfNeeded();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return Whether {@code file} is a managed file of this cache.
+     */
+    public boolean contains(@NonNull File file) {
+        return directory.equals(file.getParentFile()) && !file.getName().startsWith(FileUtils.HIDDEN_PREFIX);
+    }
+
+    /**
+     * Registers a file that was just written into the cache, or updates its size.
+     */
+    public synchronized void recordWrite(@NonNull final File file) {
+        if (!contains(file)) {
+            return;
+        }
+        if (pending != null) {
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    recordWrite(file);
+                }
+            });
+            return;
+        }
+        String name = file.getName();
+        long length = file.length();
+        Long previous = entries.put(name, length);
+        size += length - (previous != null ? previous : 0);
+        writeCount++;
+        append(WRITE, name);
+        scheduleTrimIfNeeded();
+    }
+
+    /**
+     * Marks a cached file as used, moving it to the most recently used end.
+     */
+    public synchronized void recordAccess(@NonNull final File file) {
+        if (!contains(file)) {
+            return;
+        }
+        if (pending != null) {
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    recordAccess(file);
+                }
+            });
+            return;
+        }
+        String name = file.getName();
+        if (entries.get(name) != null) {
+            hitCount++;
+            append(ACCESS, name);
+        } else if (file.exists()) {
+            recordWrite(file);
+        }
+    }
+
+    /**
+     * @return The current statistics; empty until the journal has been loaded.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(size, maxBytes, entries.size(), hitCount, writeCount, evictionCount);
+    }
+
+    /**
+     * Deletes least recently used files until the cache fits its budget, never the most recently
+     * used one. Runs on the calling thread; {@link #recordWrite(File)} already schedules this in
+     * the background. Does nothing until the journal has been loaded, which trims by itself.
+     */
+    public void trim() {
+        List<File> victims = new ArrayList<>();
+        synchronized (this) {
+            trimScheduled = false;
+            if (pending != null) {
+                return;
+            }
+            refreshSizes();
+            long target = size;
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (target > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (!iterator.hasNext()) {
+                    // the most recently used file may just have been handed out
+                    break;
+                }
+                victims.add(new File(directory, entry.getKey()));
+                target -= entry.getValue();
+                iterator.remove();
+                append(REMOVE, entry.getKey());
+            }
+            size = target;
+            evictionCount += victims.size();
+            flushJournal();
+        }
+        for (File victim : victims) {
+            if (!victim.delete() && victim.exists()) {
+                Log.w(TAG, "Unable to evict " + victim);
+            }
+        }
+        if (!victims.isEmpty()) {
+            // evicted display files may have been the last links to their blobs
+            ContentAddressedStore.onFilesEvicted();
+        }
+    }
+
+    private void scheduleTrimIfNeeded() {
+        if (pending != null) {
+            return;
+        }
+        if (size <= maxBytes || trimScheduled) {
+            scheduleFlush();
+            return;
+        }
+        trimScheduled = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                trim();
+            }
+        });
+    }
+
+    /**
+     * Journal writes are buffered and flushed in the background, so recording an access does not
+     * cost a disk write on the calling thread. A crash may lose the last few access records, which
+     * only makes the LRU order slightly less precise.
+     */
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (DocumentCache.this) {
+                    flushJournal();
+                }
+            }
+        });
+    }
+
+    /**
+     * Re-reads the size of every entry; files may have been written after {@link #recordWrite}
+     * (e.g. by {@code FileUtils.createTempImageFile} callers) or deleted by somebody else.
+     */
+    private void refreshSizes() {
+        long total = 0;
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            File file = new File(directory, entry.getKey());
+            if (!file.exists()) {
+                iterator.remove();
+                continue;
+            }
+            long length = file.length();
+            entry.setValue(length);
+            total += length;
+        }
+        size = total;
+    }
+
+    private void append(char op, String name) {
+        try {
+            if (journal == null) {
+                journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), "UTF-8"));
+            }
+            journal.write(op);
+            journal.write(' ');
+            journal.write(name);
+            journal.write('\n');
+            journalLines++;
+            if (compactBacklog != null) {
+                compactBacklog.add(op + " " + name);
+            }
+            if (journalLines > COMPACT_RATIO * Math.max(entries.size(), 16)) {
+                scheduleCompaction();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write journal", e);
+        }
+    }
+
+    private void flushJournal() {
+        flushScheduled = false;
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to flush journal", e);
+        }
+    }
+
+    /**
+     * Compacts the journal on the cache thread. The new journal is written outside the lock; lines
+     * appended meanwhile go to the old journal and are replayed into the new one when it replaces
+     * the old.
+     */
+    private void scheduleCompaction() {
+        if (compactScheduled) {
+            return;
+        }
+        compactScheduled = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<String> names;
+                synchronized (DocumentCache.this) {
+                    names = new ArrayList<>(entries.keySet());
+                    compactBacklog = new ArrayList<>();
+                }
+                File tmp = new File(directory, JOURNAL_TMP);
+                boolean written = false;
+                try {
+                    writeJournal(tmp, names);
+                    written = true;
+                } catch (IOException e) {
+                    Log.w(TAG, "Unable to compact journal", e);
+                }
+                synchronized (DocumentCache.this) {
+                    List<String> backlog = compactBacklog;
+                    compactBacklog = null;
+                    compactScheduled = false;
+                    if (written) {
+                        replaceJournal(tmp, names.size(), backlog);
+                    }
+                }
+            }
+        });
+    }
+
+    private void replaceJournal(File tmp, int lines, List<String> backlog) {
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (!tmp.renameTo(journalFile)) {
+                throw new IOException("Unable to replace " + journalFile);
+            }
+            journalLines = lines;
+            if (!backlog.isEmpty()) {
+                journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), "UTF-8"));
+                for (String line : backlog) {
+                    journal.write(line);
+                    journal.write('\n');
+                }
+                journalLines += backlog.size();
+                scheduleFlush();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to compact journal", e);
+        }
+    }
+
+    private static void writeJournal(File file, Iterable<String> names) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            for (String name : names) {
+                writer.write(WRITE);
+                writer.write(' ');
+                writer.write(name);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Rebuilds the LRU order on the cache thread: files missing from the journal (e.g. written
+     * before the cache was managed) are oldest, ordered by modification time; then the journal is
+     * replayed. The directory and the journal are read without holding the lock.
+     */
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            files = new File[0];
+        }
+        // stat every file once rather than on each comparison
+        List<Scanned> scanned = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (contains(file) && file.isFile()) {
+                scanned.add(new Scanned(file.getName(), file.lastModified(), file.length()));
+            }
+        }
+        Collections.sort(scanned, new Comparator<Scanned>() {
+            @Override
+            public int compare(Scanned s1, Scanned s2) {
+                return s1.lastModified < s2.lastModified ? -1 : (s1.lastModified == s2.lastModified ? 0 : 1);
+            }
+        });
+        Map<String, Long> onDisk = new HashMap<>(scanned.size() * 4 / 3 + 1);
+        LinkedHashMap<String, Long> order = new LinkedHashMap<>(scanned.size() * 4 / 3 + 1);
+        for (Scanned file : scanned) {
+            onDisk.put(file.name, file.length);
+            order.put(file.name, file.length);
+        }
+
+        int lines = 0;
+        BufferedReader reader = null;
+        try {
+            if (journalFile.exists()) {
+                reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), "UTF-8"));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    if (line.length() < 3 || line.charAt(1) != ' ') {
+                        continue;
+                    }
+                    String name = line.substring(2);
+                    Long length = onDisk.get(name);
+                    // re-inserting moves the entry to the most recently used end
+                    order.remove(name);
+                    if (line.charAt(0) != REMOVE && length != null) {
+                        order.put(name, length);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read journal, using modification times", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        synchronized (this) {
+            entries.putAll(order);
+            for (Long length : entries.values()) {
+                size += length;
+            }
+            journalLines = lines;
+            List<Runnable> calls = pending;
+            pending = null;
+            for (Runnable call : calls) {
+                call.run();
+            }
+            if (journalLines > entries.size()) {
+                scheduleCompaction();
+            }
+            scheduleTrimIfNeeded();
+        }
+    }
+
+    private static final class Scanned {
+        final String name;
+        final long lastModified;
+        final long length;
+
+        Scanned(String name, long lastModified, long length) {
+            this.name = name;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
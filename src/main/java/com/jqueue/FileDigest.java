@@ -0,0 +1,283 @@
+package com.jqueue;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming checksums of files and streams in constant memory.
+ * <p>
+ * Data is read through a reusable per-thread direct buffer and never collected into an array,
+ * so hashing a large file costs no more heap than hashing a small one. {@link #treeDigest} splits
+ * a file into chunks that are hashed in parallel and then hashes the concatenated chunk digests;
+ * its result is therefore different from {@link #digest(File, Algorithm)} of the same file and
+ * both sides of a comparison have to use the same mode and chunk size.
+ */
+public final class FileDigest {
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    private static ExecutorService sExecutor;
+
+    public enum Algorithm {
+        MD5, SHA_256, CRC32C;
+
+        @NonNull
+        Hasher newHasher() {
+            switch (this) {
+                case MD5:
+                    return new MessageDigestHasher("MD5");
+                case SHA_256:
+                    return new MessageDigestHasher("SHA-256");
+                default:
+                    return new Crc32cHasher();
+            }
+        }
+    }
+
+    interface Hasher {
+        void update(ByteBuffer buffer);
+
+        byte[] finish();
+    }
+
+    private FileDigest() {
+    }
+
+    /**
+     * @return The digest of the whole file.
+     */
+    @NonNull
+    public static byte[] digest(@NonNull File file, @NonNull Algorithm algorithm) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            return digest(inputStream.getChannel(), algorithm);
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    /**
+     * @return The digest of everything left in {@code inputStream}, which is not closed.
+     */
+    @NonNull
+    public static byte[] digest(@NonNull InputStream inputStream, @NonNull Algorithm algorithm) throws IOException {
+        if (inputStream instanceof FileInputStream) {
+            return digest(((FileInputStream) inputStream).getChannel(), algorithm);
+        }
+        return digest(Channels.newChannel(inputStream), algorithm);
+    }
+
+    @NonNull
+    public static String digestHex(@NonNull File file, @NonNull Algorithm algorithm) throws IOException {
+        return toHex(digest(file, algorithm));
+    }
+
+    /**
+     * Hashes {@code file} in {@code chunkSize} chunks spread over one thread per CPU, then hashes
+     * the concatenation of the chunk digests. Files of at most one chunk are hashed directly.
+     */
+    @NonNull
+    public static byte[] treeDigest(@NonNull File file, @NonNull final Algorithm algorithm, final int chunkSize)
+            throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            final FileChannel channel = inputStream.getChannel();
+            long size = channel.size();
+            if (size <= chunkSize) {
+                return digest(channel, algorithm);
+            }
+            List<Future<byte[]>> chunks = new ArrayList<>((int) ((size + chunkSize - 1) / chunkSize));
+            for (long position = 0; position < size; position += chunkSize) {
+                final long start = position;
+                final long end = Math.min(size, position + chunkSize);
+                chunks.add(executor().submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException {
+                        return digestRange(channel, start, end, algorithm);
+                    }
+                }));
+            }
+            Hasher root = algorithm.newHasher();
+            try {
+                for (Future<byte[]> chunk : chunks) {
+                    root.update(ByteBuffer.wrap(chunk.get()));
+                }
+            } catch (InterruptedException e) {
+                cancel(chunks);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while hashing " + file);
+            } catch (ExecutionException e) {
+                cancel(chunks);
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+            return root.finish();
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    @NonNull
+    public static byte[] treeDigest(@NonNull File file, @NonNull Algorithm algorithm) throws IOException {
+        return treeDigest(file, algorithm, DEFAULT_CHUNK_SIZE);
+    }
+
+    @NonNull
+    public static String toHex(@NonNull byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xf, 16);
+            chars[i * 2 + 1] = Character.forDigit(bytes[i] & 0xf, 16);
+        }
+        return new String(chars);
+    }
+
+    private static byte[] digest(ReadableByteChannel channel, Algorithm algorithm) throws IOException {
+        Hasher hasher = algorithm.newHasher();
+        ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            hasher.update(buffer);
+            buffer.clear();
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * Positional reads leave the channel position alone, so chunks can share one channel.
+     */
+    private static byte[] digestRange(FileChannel channel, long start, long end, Algorithm algorithm)
+            throws IOException {
+        Hasher hasher = algorithm.newHasher();
+        ByteBuffer buffer = BUFFER.get();
+        long position = start;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                throw new IOException("File shrank while hashing at " + position);
+            }
+            buffer.flip();
+            hasher.update(buffer);
+            position += read;
+        }
+        buffer.clear();
+        return hasher.finish();
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (sExecutor == null) {
+            final AtomicInteger count = new AtomicInteger();
+            sExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "FileDigest-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    private static void cancel(List<Future<byte[]>> futures) {
+        for (Future<byte[]> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static void close(FileInputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static final class MessageDigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        MessageDigestHasher(String algorithm) {
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(algorithm + " is not available", e);
+            }
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override
+        public byte[] finish() {
+            return digest.digest();
+        }
+    }
+
+    /**
+     * CRC-32C (Castagnoli), table driven; java.util.zip.CRC32C needs API 26.
+     */
+    static final class Crc32cHasher implements Hasher {
+        private static final int[] TABLE = new int[256];
+
+        static {
+            for (int i = 0; i < 256; i++) {
+                int crc = i;
+                for (int bit = 0; bit < 8; bit++) {
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+                }
+                TABLE[i] = crc;
+            }
+        }
+
+        private int crc = 0xFFFFFFFF;
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            int value = crc;
+            while (buffer.hasRemaining()) {
+                value = (value >>> 8) ^ TABLE[(value ^ buffer.get()) & 0xFF];
+            }
+            crc = value;
+        }
+
+        @Override
+        public byte[] finish() {
+            int value = ~crc;
+            return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.jqueue;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Claims collision-free file names of the form {@code name(n).ext}.
+ * <p>
+ * Names are claimed with {@link File#createNewFile()}, which fails atomically if the file already
+ * exists, so concurrent callers can never end up with the same file. For every directory and base
+ * name the last used index is kept in memory: the first collision lists the directory once to
+ * find the highest index in use, after which each new name costs two {@code createNewFile} calls
+ * (the plain name, then the next index) in the common case instead of one {@code exists} call per
+ * taken name.
+ * <p>
+ * The first call on the plain name is deliberate. The plain name has to be reused as soon as it is
+ * free again, as it was before the counters existed, and only trying it shows whether it is; a
+ * counter can only say which indexed name to try next. Skipping it while a counter exists would
+ * save one failing syscall per collision, but callers would get {@code name(n)} for a deleted name.
+ */
+public final class FileNameAllocator {
+    private static final int MAX_COUNTERS = 1024;
+
+    // "<directory>/<name>" -> last index handed out
+    private static final LruCache<String, AtomicInteger> COUNTERS = new LruCache<>(MAX_COUNTERS);
+
+    private FileNameAllocator() {
+    }
+
+    /**
+     * Creates a new empty file in {@code directory} named {@code name}, or {@code name(n)} with the
+     * extension kept if that name is taken.
+     *
+     * @return The created file.
+     */
+    @NonNull
+    public static File claim(@NonNull File directory, @NonNull String name) throws IOException {
+        String key = directory.getAbsolutePath() + File.separatorChar + name;
+        // the plain name is always preferred, as before, e.g. after the user deleted it
+        File plain = new File(directory, name);
+        if (plain.createNewFile()) {
+            // the directory changed behind the counter, seed it again on the next collision
+            COUNTERS.remove(key);
+            return plain;
+        }
+        AtomicInteger counter = COUNTERS.get(key);
+        if (counter == null) {
+            counter = seed(key, directory, name);
+        }
+
+        String baseName = name;
+        String extension = "";
+        int dotIndex = name.lastIndexOf('.');
+        if (dotIndex > 0) {
+            baseName = name.substring(0, dotIndex);
+            extension = name.substring(dotIndex);
+        }
+        while (true) {
+            int index = counter.incrementAndGet();
+            File file = new File(directory, baseName + '(' + index + ')' + extension);
+            if (file.createNewFile()) {
+                return file;
+            }
+            if (!directory.isDirectory()) {
+                throw new IOException("Not a directory: " + directory);
+            }
+            // created behind our back, try the next index
+        }
+    }
+
+    /**
+     * Forgets the counters of {@code directory}, e.g. after its content was deleted.
+     */
+    public static void reset(@NonNull File directory) {
+        String prefix = directory.getAbsolutePath() + File.separatorChar;
+        for (String key : COUNTERS.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                COUNTERS.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Lists {@code directory} once to find the highest {@code name(n)} index in use.
+     */
+    private static AtomicInteger seed(String key, File directory, String name) {
+        synchronized (COUNTERS) {
+            AtomicInteger counter = COUNTERS.get(key);
+            if (counter != null) {
+                return counter;
+            }
+            String baseName = name;
+            String extension = "";
+            int dotIndex = name.lastIndexOf('.');
+            if (dotIndex > 0) {
+                baseName = name.substring(0, dotIndex);
+                extension = name.substring(dotIndex);
+            }
+            int max = 0;
+            String[] names = directory.list();
+            if (names != null) {
+                for (String existing : names) {
+                    max = Math.max(max, parseIndex(existing, baseName, extension));
+                }
+            }
+            counter = new AtomicInteger(max);
+            COUNTERS.put(key, counter);
+            return counter;
+        }
+    }
+
+    /**
+     * @return n if {@code name} is {@code baseName(n)extension}, 0 otherwise.
+     */
+    private static int parseIndex(String name, String baseName, String extension) {
+        int open = baseName.length();
+        int close = name.length() - extension.length() - 1;
+        if (close <= open + 1 || name.charAt(open) != '(' || name.charAt(close) != ')'
+                || !name.startsWith(baseName) || !name.endsWith(extension)) {
+            return 0;
+        }
+        int index = 0;
+        for (int i = open + 1; i < close; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || index > (Integer.MAX_VALUE - 9) / 10) {
+                return 0;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+}
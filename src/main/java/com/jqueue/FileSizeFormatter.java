@@ -0,0 +1,89 @@
+package com.jqueue;
+
+import androidx.annotation.NonNull;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats byte counts as "512 B", "1.5 KB", "3 GB" ... up to exabytes, with 1024 steps and at
+ * most one fraction digit (rounded half up, trailing ".0" dropped).
+ * <p>
+ * Decimal separator and digits follow the locale. {@link #formatTo(long, StringBuilder)} appends to
+ * a caller-owned builder and does not allocate, so a list can reuse one builder per row and hand
+ * it to {@code TextView.setText(CharSequence)}.
+ */
+public final class FileSizeFormatter {
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB", "PB", "EB"};
+
+    private static volatile FileSizeFormatter sDefault;
+
+    private final Locale locale;
+    private final char decimalSeparator;
+    private final char zeroDigit;
+
+    public FileSizeFormatter(@NonNull Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.locale = locale;
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.zeroDigit = symbols.getZeroDigit();
+    }
+
+    /**
+     * @return The formatter for the current default locale, rebuilt only when the locale changed.
+     */
+    @NonNull
+    public static FileSizeFormatter getInstance() {
+        Locale locale = Locale.getDefault();
+        FileSizeFormatter formatter = sDefault;
+        if (formatter == null || !formatter.locale.equals(locale)) {
+            formatter = new FileSizeFormatter(locale);
+            sDefault = formatter;
+        }
+        return formatter;
+    }
+
+    @NonNull
+    public String format(long bytes) {
+        return formatTo(bytes, new StringBuilder(12)).toString();
+    }
+
+    /**
+     * Appends the formatted size to {@code out}.
+     *
+     * @param bytes A size in bytes; negative sizes are formatted like positive ones with a sign.
+     * @return {@code out}
+     */
+    @NonNull
+    public StringBuilder formatTo(long bytes, @NonNull StringBuilder out) {
+        if (bytes < 0) {
+            out.append('-');
+        }
+        // Long.MIN_VALUE has no positive counterpart; both round to 8 EB
+        long magnitude = bytes == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(bytes);
+        if (magnitude < 1024) {
+            appendDigits(out, magnitude);
+            return out.append(' ').append(UNITS[0]);
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(magnitude)) / 10;
+        long tenths = Math.round(magnitude * 10.0 / (1L << (10 * unit)));
+        if (tenths >= 10240 && unit < UNITS.length - 1) {
+            // 1023.95 KB rounds up to the next unit
+            unit++;
+            tenths = Math.round(magnitude * 10.0 / (1L << (10 * unit)));
+        }
+        appendDigits(out, tenths / 10);
+        int fraction = (int) (tenths % 10);
+        if (fraction != 0) {
+            out.append(decimalSeparator).append((char) (zeroDigit + fraction));
+        }
+        return out.append(' ').append(UNITS[unit]);
+    }
+
+    private void appendDigits(StringBuilder out, long value) {
+        if (value >= 10) {
+            appendDigits(out, value / 10);
+        }
+        out.append((char) (zeroDigit + (int) (value % 10)));
+    }
+}
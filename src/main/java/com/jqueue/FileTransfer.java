@@ -0,0 +1,160 @@
+package com.jqueue;
+
+import android.os.CancellationSignal;
+import android.os.ParcelFileDescriptor;
+
+import androidx.annotation.Nullable;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Copy engine used by {@code FileUtils.copy}.
+ * <p>
+ * Regular files ({@link FileInputStream} to {@link FileOutputStream}, including
+ * {@link ParcelFileDescriptor}s, whose auto-close streams are file streams) are moved with
+ * {@link FileChannel#transferTo} so the data never passes through a Java buffer. Everything
+ * else, including pipe-backed descriptors, goes through a pooled buffer that grows while the
+ * source keeps filling it.
+ * <p>
+ * Copies can report progress and be cancelled through a {@link CancellationSignal}; both are
+ * checked between chunks, so cancellation takes effect within one chunk.
+ */
+public final class FileTransfer {
+    /**
+     * Upper bound for a single channel transfer call; some kernels cap sendfile/splice anyway.
+     */
+    private static final long MAX_TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    /**
+     * Receives copy progress. Called on the copying thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param bytesCopied Bytes copied so far.
+         * @param totalBytes  Expected total, or -1 if unknown.
+         */
+        void onProgress(long bytesCopied, long totalBytes);
+    }
+
+    private FileTransfer() {
+    }
+
+    /**
+     * Copies {@code inputStream} to {@code outputStream} until end of stream. Neither stream is
+     * closed.
+     *
+     * @return The number of bytes copied.
+     */
+    public static long copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        return copy(inputStream, outputStream, null, null);
+    }
+
+    /**
+     * Copies {@code inputStream} to {@code outputStream} until end of stream. Neither stream is
+     * closed.
+     *
+     * @return The number of bytes copied.
+     * @throws android.os.OperationCanceledException if {@code signal} was cancelled.
+     */
+    public static long copy(InputStream inputStream, OutputStream outputStream,
+                            @Nullable ProgressListener listener,
+                            @Nullable CancellationSignal signal) throws IOException {
+        if (inputStream instanceof FileInputStream && outputStream instanceof FileOutputStream) {
+            FileChannel in = ((FileInputStream) inputStream).getChannel();
+            // pipes and sockets handed out by providers cannot be read at a position
+            if (isRegularFile(in)) {
+                FileChannel out = ((FileOutputStream) outputStream).getChannel();
+                return transferTo(in, out, listener, signal);
+            }
+        }
+        return copyBuffered(inputStream, outputStream, listener, signal);
+    }
+
+    /**
+     * Copies the remaining content of {@code source} into {@code destination}. Neither descriptor
+     * is closed.
+     *
+     * @return The number of bytes copied.
+     */
+    public static long copy(ParcelFileDescriptor source, ParcelFileDescriptor destination) throws IOException {
+        FileInputStream in = new FileInputStream(source.getFileDescriptor());
+        FileOutputStream out = new FileOutputStream(destination.getFileDescriptor());
+        return copy(in, out);
+    }
+
+    /**
+     * Whether {@code channel} has a known size, i.e. it is a regular file and not a pipe or socket
+     * handed out by a ContentProvider.
+     */
+    private static boolean isRegularFile(FileChannel channel) {
+        try {
+            return channel.size() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long transferTo(FileChannel in, FileChannel out, ProgressListener listener,
+                                   CancellationSignal signal) throws IOException {
+        long start = in.position();
+        long position = start;
+        long size = in.size();
+        while (position < size) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            long transferred = in.transferTo(position, Math.min(MAX_TRANSFER_CHUNK, size - position), out);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            if (listener != null) {
+                listener.onProgress(position - start, size - start);
+            }
+        }
+        // transferTo does not move the source position
+        in.position(position);
+        return position - start;
+    }
+
+    private static long copyBuffered(InputStream inputStream, OutputStream outputStream,
+                                     ProgressListener listener, CancellationSignal signal) throws IOException {
+        int size = BufferPool.sizeClass(Math.max(inputStream.available(), BufferPool.minSize()));
+        byte[] buffer = BufferPool.acquire(size);
+        long total = 0;
+        try {
+            int fullReads = 0;
+            int read;
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                if ((read = inputStream.read(buffer)) == -1) {
+                    break;
+                }
+                outputStream.write(buffer, 0, read);
+                total += read;
+                if (listener != null) {
+                    listener.onProgress(total, -1);
+                }
+                // the source keeps up with the buffer, so move to the next size class
+                if (read == buffer.length && buffer.length < BufferPool.maxSize() && ++fullReads == 2) {
+                    BufferPool.release(buffer);
+                    buffer = BufferPool.acquire(BufferPool.nextSizeClass(buffer.length));
+                    fullReads = 0;
+                } else if (read < buffer.length) {
+                    fullReads = 0;
+                }
+            }
+            outputStream.flush();
+        } finally {
+            BufferPool.release(buffer);
+        }
+        return total;
+    }
+}
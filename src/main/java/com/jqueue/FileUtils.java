@@ -26,14 +26,24 @@ import android.os.Build;
 import android.os.Environment;
 import android.provider.DocumentsContract;
 import android.provider.MediaStore;
-import android.provider.OpenableColumns;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.content.FileProvider;
 import android.util.Log;
-import android.webkit.MimeTypeMap;
 
-import java.io.BufferedOutputStream;
+import com.jqueue.ContentAddressedStore;
+import com.jqueue.DocumentCache;
+import com.jqueue.FileNameAllocator;
+import com.jqueue.FileSizeFormatter;
+import com.jqueue.FileTransfer;
+import com.jqueue.LargeFileReader;
+import com.jqueue.MimeTypeRegistry;
+import com.jqueue.SingleFlight;
+import com.jqueue.UriImporter;
+import com.jqueue.UriMetadata;
+import com.jqueue.UriMetadataCache;
+import com.jqueue.UriPathCache;
+
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileFilter;
@@ -43,8 +53,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class FileUtils {
     public static final String DOCUMENTS_DIR = "documents";
@@ -57,14 +73,18 @@ public class FileUtils {
     static final String TAG = "FileUtils";
     private static final boolean DEBUG = false; // Set to true to enable logging
     /**
-     * File and folder comparator. TODO Expose sorting option method
+     * Bind arguments per query in {@link #getPaths(Context, Collection)}, below SQLite's limit of 999.
+     */
+    private static final int MAX_QUERY_ARGS = 500;
+    /**
+     * File and folder comparator. For locale-aware ordering use
+     * {@code DirectoryScanner.sortByName}, which computes each collation key only once.
      */
     public static Comparator<File> sComparator = new Comparator<File>() {
         @Override
         public int compare(File f1, File f2) {
-            // Sort alphabetically by lower case, which is much cleaner
-            return f1.getName().toLowerCase().compareTo(
-                    f2.getName().toLowerCase());
+            // Sort alphabetically ignoring case, without lower-casing copies of both names
+            return f1.getName().compareToIgnoreCase(f2.getName());
         }
     };
     /**
@@ -89,6 +109,16 @@ public class FileUtils {
             return file.isDirectory() && !fileName.startsWith(HIDDEN_PREFIX);
         }
     };
+    /**
+     * Resolved paths of {@link #getPath(Context, Uri)}.
+     */
+    private static final UriPathCache sPathCache = new UriPathCache();
+    private static final UriMetadataCache sMetadataCache = new UriMetadataCache();
+    /**
+     * In-flight lookups per Uri, so concurrent callers share one query (and one copy).
+     */
+    private static final SingleFlight<Uri, String> sPathCalls = new SingleFlight<>();
+    private static final SingleFlight<Uri, String> sTypeCalls = new SingleFlight<>();
 
     private FileUtils() {
     } //private constructor to enforce Singleton pattern
@@ -170,13 +200,8 @@ public class FileUtils {
      * @return The MIME type for the given file.
      */
     public static String getMimeType(File file) {
-
-        String extension = getExtension(file.getName());
-
-        if (extension.length() > 0)
-            return MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension.substring(1));
-
-        return "application/octet-stream";
+        String mimeType = MimeTypeRegistry.getInstance().getMimeType(file.getName());
+        return mimeType != null ? mimeType : MimeTypeRegistry.DEFAULT_MIME_TYPE;
     }
 
     /**
@@ -190,8 +215,14 @@ public class FileUtils {
     /**
      * @return The MIME type for the give String Uri.
      */
-    public static String getMimeType(Context context, String url) {
-        String type = context.getContentResolver().getType(Uri.parse(url));
+    public static String getMimeType(final Context context, String url) {
+        final Uri uri = Uri.parse(url);
+        String type = coalesce(sTypeCalls, uri, new Callable<String>() {
+            @Override
+            public String call() {
+                return context.getContentResolver().getType(uri);
+            }
+        });
         if (type == null) {
             type = "application/octet-stream";
         }
@@ -290,10 +321,54 @@ public class FileUtils {
      * @see #getFile(Context, Uri)
      */
     public static String getPath(final Context context, final Uri uri) {
-        String absolutePath = getLocalPath(context, uri);
+        String absolutePath = sPathCache.get(context, uri);
+        if (absolutePath == null) {
+            absolutePath = coalesce(sPathCalls, uri, new Callable<String>() {
+                @Override
+                public String call() {
+                    String path = getLocalPath(context, uri);
+                    if (path != null) {
+                        sPathCache.put(context, uri, path);
+                    }
+                    return path;
+                }
+            });
+        } else if (isDocumentCacheFile(context, absolutePath)) {
+            DocumentCache.get(context).recordAccess(new File(absolutePath));
+        }
         return absolutePath != null ? absolutePath : uri.toString();
     }
 
+    /**
+     * @return Whether the path points into {@link #getDocumentCacheDir(Context)}.
+     */
+    public static boolean isDocumentCacheFile(Context context, String path) {
+        String cacheDir = new File(context.getCacheDir(), DOCUMENTS_DIR).getPath();
+        return path.length() > cacheDir.length() && path.startsWith(cacheDir)
+                && path.charAt(cacheDir.length()) == File.separatorChar;
+    }
+
+    /**
+     * Runs {@code callable} for {@code uri}, sharing the result with concurrent callers.
+     *
+     * @return The result, or null if the lookup failed.
+     */
+    private static String coalesce(SingleFlight<Uri, String> calls, Uri uri, Callable<String> callable) {
+        try {
+            return calls.execute(uri, callable);
+        } catch (IOException e) {
+            Log.w(TAG, "Lookup failed for " + uri, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The cache behind {@link #getPath(Context, Uri)}, e.g. to read its hit/miss counters.
+     */
+    public static UriPathCache getPathCache() {
+        return sPathCache;
+    }
+
     private static String getLocalPath(final Context context, final Uri uri) {
 
         if (DEBUG)
@@ -356,16 +431,13 @@ public class FileUtils {
                 }
 
                 // path could not be retrieved using ContentResolver, therefore copy file to accessible cache using streams
-                String fileName = getFileName(context, uri);
-                File cacheDir = getDocumentCacheDir(context);
-                File file = generateFileName(fileName, cacheDir);
-                String destinationPath = null;
-                if (file != null) {
-                    destinationPath = file.getAbsolutePath();
-                    saveFileFromUri(context, uri, destinationPath);
+                try {
+                    File file = ContentAddressedStore.get(context).importUri(context, uri, null, null);
+                    return file != null ? file.getAbsolutePath() : null;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return null;
                 }
-
-                return destinationPath;
             }
             // MediaProvider
             else if (isMediaDocument(uri)) {
@@ -373,14 +445,7 @@ public class FileUtils {
                 final String[] split = docId.split(":");
                 final String type = split[0];
 
-                Uri contentUri = null;
-                if ("image".equals(type)) {
-                    contentUri = MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
-                } else if ("video".equals(type)) {
-                    contentUri = MediaStore.Video.Media.EXTERNAL_CONTENT_URI;
-                } else if ("audio".equals(type)) {
-                    contentUri = MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
-                }
+                Uri contentUri = getMediaContentUri(type);
 
                 final String selection = "_id=?";
                 final String[] selectionArgs = new String[]{
@@ -408,6 +473,131 @@ public class FileUtils {
         return null;
     }
 
+    /**
+     * Batch version of {@link #getPath(Context, Uri)}. MediaProvider documents are grouped by
+     * media type and each group is resolved with a single {@code _id IN (...)} query; other Uris
+     * are resolved one by one.
+     *
+     * @param context The context.
+     * @param uris    The Uris to resolve.
+     * @return The path of every Uri, in iteration order of {@code uris}.
+     */
+    public static Map<Uri, String> getPaths(final Context context, final Collection<Uri> uris) {
+        final Map<Uri, String> paths = new LinkedHashMap<>(uris.size() * 4 / 3 + 1);
+        // content Uri -> document id -> Uris with that id
+        final Map<Uri, Map<String, List<Uri>>> mediaGroups = new HashMap<>();
+        final boolean isKitKat = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+
+        for (Uri uri : uris) {
+            if (paths.containsKey(uri)) {
+                continue;
+            }
+            String cached = sPathCache.get(context, uri);
+            if (cached != null) {
+                paths.put(uri, cached);
+                continue;
+            }
+            Uri contentUri = null;
+            String[] split = null;
+            if (isKitKat && isMediaDocument(uri) && DocumentsContract.isDocumentUri(context, uri)) {
+                split = DocumentsContract.getDocumentId(uri).split(":");
+                contentUri = getMediaContentUri(split[0]);
+            }
+            if (contentUri == null || split.length < 2) {
+                paths.put(uri, getPath(context, uri));
+                continue;
+            }
+            // reserve the slot so the result keeps the caller's order
+            paths.put(uri, null);
+            Map<String, List<Uri>> group = mediaGroups.get(contentUri);
+            if (group == null) {
+                group = new LinkedHashMap<>();
+                mediaGroups.put(contentUri, group);
+            }
+            List<Uri> sameId = group.get(split[1]);
+            if (sameId == null) {
+                sameId = new ArrayList<>(1);
+                group.put(split[1], sameId);
+            }
+            sameId.add(uri);
+        }
+
+        for (Map.Entry<Uri, Map<String, List<Uri>>> group : mediaGroups.entrySet()) {
+            Map<String, String> dataById = getDataColumns(context, group.getKey(), group.getValue().keySet());
+            for (Map.Entry<String, List<Uri>> ids : group.getValue().entrySet()) {
+                String path = dataById.get(ids.getKey());
+                for (Uri uri : ids.getValue()) {
+                    if (path != null) {
+                        sPathCache.put(context, uri, path);
+                        paths.put(uri, path);
+                    } else {
+                        paths.put(uri, uri.toString());
+                    }
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @return The MediaStore content Uri for a MediaProvider document type, or null if the type is unknown.
+     */
+    private static Uri getMediaContentUri(String type) {
+        if ("image".equals(type)) {
+            return MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
+        } else if ("video".equals(type)) {
+            return MediaStore.Video.Media.EXTERNAL_CONTENT_URI;
+        } else if ("audio".equals(type)) {
+            return MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
+        }
+        return null;
+    }
+
+    /**
+     * Batch version of {@link #getDataColumn(Context, Uri, String, String[])} for rows of one
+     * table, queried by {@code _id} in chunks that stay below SQLite's bind argument limit.
+     *
+     * @return The _data column by id; ids without a row are missing from the map.
+     */
+    private static Map<String, String> getDataColumns(Context context, Uri contentUri, Collection<String> ids) {
+        final Map<String, String> dataById = new HashMap<>(ids.size() * 4 / 3 + 1);
+        final String[] projection = {
+                "_id", MediaStore.Files.FileColumns.DATA
+        };
+        final List<String> pending = new ArrayList<>(ids);
+
+        for (int start = 0; start < pending.size(); start += MAX_QUERY_ARGS) {
+            List<String> chunk = pending.subList(start, Math.min(start + MAX_QUERY_ARGS, pending.size()));
+            StringBuilder selection = new StringBuilder(chunk.size() * 2 + 8).append("_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                selection.append(i == 0 ? "?" : ",?");
+            }
+            selection.append(')');
+
+            Cursor cursor = null;
+            try {
+                cursor = context.getContentResolver().query(contentUri, projection, selection.toString(),
+                        chunk.toArray(new String[chunk.size()]), null);
+                if (cursor != null) {
+                    if (DEBUG)
+                        DatabaseUtils.dumpCursor(cursor);
+
+                    final int idIndex = cursor.getColumnIndexOrThrow("_id");
+                    final int dataIndex = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATA);
+                    while (cursor.moveToNext()) {
+                        dataById.put(cursor.getString(idIndex), cursor.getString(dataIndex));
+                    }
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                if (cursor != null)
+                    cursor.close();
+            }
+        }
+        return dataById;
+    }
+
     /**
      * Convert Uri into File, if possible.
      *
@@ -432,29 +622,17 @@ public class FileUtils {
      * @param size
      * @return
      * @author paulburke
+     * @see FileSizeFormatter
      */
     public static String getReadableFileSize(int size) {
-        final int BYTES_IN_KILOBYTES = 1024;
-        final DecimalFormat dec = new DecimalFormat("###.#");
-        final String KILOBYTES = " KB";
-        final String MEGABYTES = " MB";
-        final String GIGABYTES = " GB";
-        float fileSize = 0;
-        String suffix = KILOBYTES;
-
-        if (size > BYTES_IN_KILOBYTES) {
-            fileSize = size / BYTES_IN_KILOBYTES;
-            if (fileSize > BYTES_IN_KILOBYTES) {
-                fileSize = fileSize / BYTES_IN_KILOBYTES;
-                if (fileSize > BYTES_IN_KILOBYTES) {
-                    fileSize = fileSize / BYTES_IN_KILOBYTES;
-                    suffix = GIGABYTES;
-                } else {
-                    suffix = MEGABYTES;
-                }
-            }
-        }
-        return String.valueOf(dec.format(fileSize) + suffix);
+        return getReadableFileSize((long) size);
+    }
+
+    /**
+     * @see FileSizeFormatter#formatTo(long, StringBuilder) to format list rows without allocating
+     */
+    public static String getReadableFileSize(long size) {
+        return FileSizeFormatter.getInstance().format(size);
     }
 
     /**
@@ -483,44 +661,8 @@ public class FileUtils {
         //Uri uri = Uri.fromFile(file);
         Uri uri = FileProvider.getUriForFile(context, AUTHORITY, file);
         Intent intent = new Intent(Intent.ACTION_VIEW);
-        String url = file.toString();
-        if (url.contains(".doc") || url.contains(".docx")) {
-            // Word document
-            intent.setDataAndType(uri, "application/msword");
-        } else if (url.contains(".pdf")) {
-            // PDF file
-            intent.setDataAndType(uri, "application/pdf");
-        } else if (url.contains(".ppt") || url.contains(".pptx")) {
-            // Powerpoint file
-            intent.setDataAndType(uri, "application/vnd.ms-powerpoint");
-        } else if (url.contains(".xls") || url.contains(".xlsx")) {
-            // Excel file
-            intent.setDataAndType(uri, "application/vnd.ms-excel");
-        } else if (url.contains(".zip") || url.contains(".rar")) {
-            // WAV audio file
-            intent.setDataAndType(uri, "application/x-wav");
-        } else if (url.contains(".rtf")) {
-            // RTF file
-            intent.setDataAndType(uri, "application/rtf");
-        } else if (url.contains(".wav") || url.contains(".mp3")) {
-            // WAV audio file
-            intent.setDataAndType(uri, "audio/x-wav");
-        } else if (url.contains(".gif")) {
-            // GIF file
-            intent.setDataAndType(uri, "image/gif");
-        } else if (url.contains(".jpg") || url.contains(".jpeg") || url.contains(".png")) {
-            // JPG file
-            intent.setDataAndType(uri, "image/jpeg");
-        } else if (url.contains(".txt")) {
-            // Text file
-            intent.setDataAndType(uri, "text/plain");
-        } else if (url.contains(".3gp") || url.contains(".mpg") || url.contains(".mpeg") ||
-                url.contains(".mpe") || url.contains(".mp4") || url.contains(".avi")) {
-            // Video files
-            intent.setDataAndType(uri, "video/*");
-        } else {
-            intent.setDataAndType(uri, "*/*");
-        }
+        String mimeType = MimeTypeRegistry.getInstance().getMimeType(file.getName());
+        intent.setDataAndType(uri, mimeType != null ? mimeType : "*/*");
 
         intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
         intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
@@ -560,51 +702,40 @@ public class FileUtils {
         }
     }
 
-    public static final void copy(InputStream inputStream, OutputStream outputStream) {
-        byte[] b = new byte[1024];
+    /**
+     * Copies the stream and closes both ends.
+     *
+     * @return The number of bytes copied, or -1 if the copy failed.
+     * @see FileTransfer#copy(InputStream, OutputStream)
+     */
+    public static final long copy(InputStream inputStream, OutputStream outputStream) {
         try {
-            while (inputStream.read(b) != -1) {
-                outputStream.write(b, 0, b.length);
-            }
+            return FileTransfer.copy(inputStream, outputStream);
         } catch (Exception e) {
             e.printStackTrace();
+            return -1;
         } finally {
             close(inputStream);
             close(outputStream);
         }
-
     }
 
 
+    /**
+     * Creates a new empty file named {@code name} in {@code directory}, or {@code name(n)} if the
+     * name is already taken.
+     *
+     * @return The created file, or null if it could not be created.
+     * @see FileNameAllocator#claim(File, String)
+     */
     public static File generateFileName(@Nullable String name, File directory) {
         if (name == null) {
             return null;
         }
 
-        File file = new File(directory, name);
-
-        if (file.exists()) {
-            String fileName = name;
-            String extension = "";
-            int dotIndex = name.lastIndexOf('.');
-            if (dotIndex > 0) {
-                fileName = name.substring(0, dotIndex);
-                extension = name.substring(dotIndex);
-            }
-
-            int index = 0;
-
-            while (file.exists()) {
-                index++;
-                name = fileName + '(' + index + ')' + extension;
-                file = new File(directory, name);
-            }
-        }
-
+        File file;
         try {
-            if (!file.createNewFile()) {
-                return null;
-            }
+            file = FileNameAllocator.claim(directory, name);
         } catch (IOException e) {
             Log.w(TAG, e);
             return null;
@@ -615,92 +746,59 @@ public class FileUtils {
         return file;
     }
 
-    private static void saveFileFromUri(Context context, Uri uri, String destinationPath) {
-        InputStream is = null;
-        BufferedOutputStream bos = null;
-        try {
-            is = context.getContentResolver().openInputStream(uri);
-            bos = new BufferedOutputStream(new FileOutputStream(destinationPath, false));
-            byte[] buf = new byte[1024];
-            is.read(buf);
-            do {
-                bos.write(buf);
-            } while (is.read(buf) != -1);
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            try {
-                if (is != null) is.close();
-                if (bos != null) bos.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-    }
-
+    /**
+     * Reads the whole file into memory. Prefer {@link LargeFileReader#read(File)} or
+     * {@link LargeFileReader#chunks(File)} for files that may be large.
+     *
+     * @return The file content, or null if it could not be read completely.
+     */
     public static byte[] readBytesFromFile(String filePath) {
-
-        FileInputStream fileInputStream = null;
-        byte[] bytesArray = null;
-
         try {
-
-            File file = new File(filePath);
-            bytesArray = new byte[(int) file.length()];
-
-            //read file into bytes[]
-            fileInputStream = new FileInputStream(file);
-            fileInputStream.read(bytesArray);
-
+            return LargeFileReader.readFully(new File(filePath));
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            if (fileInputStream != null) {
-                try {
-                    fileInputStream.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-
+            return null;
         }
-
-        return bytesArray;
-
     }
 
     public static File createTempImageFile(Context context, String fileName) throws IOException {
         // Create an image file name
-        File storageDir = new File(context.getCacheDir(), DOCUMENTS_DIR);
-        return File.createTempFile(fileName, ".jpg", storageDir);
+        File storageDir = getDocumentCacheDir(context);
+        File file = File.createTempFile(fileName, ".jpg", storageDir);
+        // the size is picked up again when the cache is trimmed, after the caller wrote the image
+        DocumentCache.get(context).recordWrite(file);
+        return file;
     }
 
+    /**
+     * @return The display name of {@code uri}, or the last segment of its path if the provider has
+     * none.
+     * @see #getMetadata(Context, Uri)
+     */
     public static String getFileName(@NonNull Context context, Uri uri) {
-        String mimeType = context.getContentResolver().getType(uri);
-        String filename = null;
-
-        if (mimeType == null && context != null) {
-            String path = getPath(context, uri);
-            if (path == null) {
-                filename = getName(uri.toString());
-            } else {
-                File file = new File(path);
-                filename = file.getName();
-            }
-        } else {
-            Cursor returnCursor = context.getContentResolver().query(uri, null,
-                    null, null, null);
-            if (returnCursor != null) {
-                int nameIndex = returnCursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
-                returnCursor.moveToFirst();
-                filename = returnCursor.getString(nameIndex);
-                returnCursor.close();
-            }
+        String filename = getMetadata(context, uri).displayName;
+        if (filename == null) {
+            filename = getName(getPath(context, uri));
         }
-
         return filename;
     }
 
+    /**
+     * @return Display name, size, MIME type and last-modified time of {@code uri}, read with one
+     * query and cached.
+     */
+    @NonNull
+    public static UriMetadata getMetadata(@NonNull Context context, @NonNull Uri uri) {
+        return sMetadataCache.get(context, uri);
+    }
+
+    /**
+     * @return The cache behind {@link #getMetadata(Context, Uri)}.
+     */
+    public static UriMetadataCache getMetadataCache() {
+        return sMetadataCache;
+    }
+
     public static String getName(String filename) {
         if (filename == null) {
             return null;
@@ -709,1360 +807,17 @@ public class FileUtils {
         return filename.substring(index + 1);
     }
 
+    /**
+     * @return The MIME type for the extension of {@code fileName}; "application/octet-stream" if
+     * the extension is unknown, "" if there is none.
+     * @see MimeTypeRegistry
+     */
     public static String MimeType(String fileName) {
-        String retval = "";
-        if (fileName.contains(".")) {
-            switch (fileName.substring(fileName.lastIndexOf('.'))) {
-                case ".3dm":
-                    retval = "x-world/x-3dmf";
-                    break;
-                case ".3dmf":
-                    retval = "x-world/x-3dmf";
-                    break;
-                case ".a":
-                    retval = "application/octet-stream";
-                    break;
-                case ".aab":
-                    retval = "application/x-authorware-bin";
-                    break;
-                case ".aam":
-                    retval = "application/x-authorware-map";
-                    break;
-                case ".aas":
-                    retval = "application/x-authorware-seg";
-                    break;
-                case ".abc":
-                    retval = "text/vnd.abc";
-                    break;
-                case ".acgi":
-                    retval = "text/html";
-                    break;
-                case ".afl":
-                    retval = "video/animaflex";
-                    break;
-                case ".ai":
-                    retval = "application/postscript";
-                    break;
-                case ".aif":
-                    retval = "audio/aiff";
-                    break;
-                case ".aifc":
-                    retval = "audio/aiff";
-                    break;
-                case ".aiff":
-                    retval = "audio/aiff";
-                    break;
-                case ".aim":
-                    retval = "application/x-aim";
-                    break;
-                case ".aip":
-                    retval = "text/x-audiosoft-intra";
-                    break;
-                case ".ani":
-                    retval = "application/x-navi-animation";
-                    break;
-                case ".aos":
-                    retval = "application/x-nokia-9000-communicator-add-on-software";
-                    break;
-                case ".aps":
-                    retval = "application/mime";
-                    break;
-                case ".arc":
-                    retval = "application/octet-stream";
-                    break;
-                case ".arj":
-                    retval = "application/arj";
-                    break;
-                case ".art":
-                    retval = "image/x-jg";
-                    break;
-                case ".asf":
-                    retval = "video/x-ms-asf";
-                    break;
-                case ".asm":
-                    retval = "text/x-asm";
-                    break;
-                case ".asp":
-                    retval = "text/asp";
-                    break;
-                case ".asx":
-                    retval = "video/x-ms-asf";
-                    break;
-                case ".au":
-                    retval = "audio/basic";
-                    break;
-                case ".avi":
-                    retval = "video/avi";
-                    break;
-                case ".avs":
-                    retval = "video/avs-video";
-                    break;
-                case ".bcpio":
-                    retval = "application/x-bcpio";
-                    break;
-                case ".bin":
-                    retval = "application/octet-stream";
-                    break;
-                case ".bm":
-                    retval = "image/bmp";
-                    break;
-                case ".bmp":
-                    retval = "image/bmp";
-                    break;
-                case ".boo":
-                    retval = "application/book";
-                    break;
-                case ".book":
-                    retval = "application/book";
-                    break;
-                case ".boz":
-                    retval = "application/x-bzip2";
-                    break;
-                case ".bsh":
-                    retval = "application/x-bsh";
-                    break;
-                case ".bz":
-                    retval = "application/x-bzip";
-                    break;
-                case ".bz2":
-                    retval = "application/x-bzip2";
-                    break;
-                case ".c":
-                    retval = "text/plain";
-                    break;
-                case ".c++":
-                    retval = "text/plain";
-                    break;
-                case ".cat":
-                    retval = "application/vnd.ms-pki.seccat";
-                    break;
-                case ".cc":
-                    retval = "text/plain";
-                    break;
-                case ".ccad":
-                    retval = "application/clariscad";
-                    break;
-                case ".cco":
-                    retval = "application/x-cocoa";
-                    break;
-                case ".cdf":
-                    retval = "application/cdf";
-                    break;
-                case ".cer":
-                    retval = "application/pkix-cert";
-                    break;
-                case ".cha":
-                    retval = "application/x-chat";
-                    break;
-                case ".chat":
-                    retval = "application/x-chat";
-                    break;
-                case ".class":
-                    retval = "application/java";
-                    break;
-                case ".com":
-                    retval = "application/octet-stream";
-                    break;
-                case ".conf":
-                    retval = "text/plain";
-                    break;
-                case ".cpio":
-                    retval = "application/x-cpio";
-                    break;
-                case ".cpp":
-                    retval = "text/x-c";
-                    break;
-                case ".cpt":
-                    retval = "application/x-cpt";
-                    break;
-                case ".crl":
-                    retval = "application/pkcs-crl";
-                    break;
-                case ".crt":
-                    retval = "application/pkix-cert";
-                    break;
-                case ".csh":
-                    retval = "application/x-csh";
-                    break;
-                case ".css":
-                    retval = "text/css";
-                    break;
-                case ".cxx":
-                    retval = "text/plain";
-                    break;
-                case ".dcr":
-                    retval = "application/x-director";
-                    break;
-                case ".deepv":
-                    retval = "application/x-deepv";
-                    break;
-                case ".def":
-                    retval = "text/plain";
-                    break;
-                case ".der":
-                    retval = "application/x-x509-ca-cert";
-                    break;
-                case ".dif":
-                    retval = "video/x-dv";
-                    break;
-                case ".dir":
-                    retval = "application/x-director";
-                    break;
-                case ".dl":
-                    retval = "video/dl";
-                    break;
-                case ".doc":
-                    retval = "application/msword";
-                    break;
-                case ".dot":
-                    retval = "application/msword";
-                    break;
-                case ".dp":
-                    retval = "application/commonground";
-                    break;
-                case ".drw":
-                    retval = "application/drafting";
-                    break;
-                case ".dump":
-                    retval = "application/octet-stream";
-                    break;
-                case ".dv":
-                    retval = "video/x-dv";
-                    break;
-                case ".dvi":
-                    retval = "application/x-dvi";
-                    break;
-                case ".dwf":
-                    retval = "model/vnd.dwf";
-                    break;
-                case ".dwg":
-                    retval = "image/vnd.dwg";
-                    break;
-                case ".dxf":
-                    retval = "image/vnd.dwg";
-                    break;
-                case ".dxr":
-                    retval = "application/x-director";
-                    break;
-                case ".el":
-                    retval = "text/x-script.elisp";
-                    break;
-                case ".elc":
-                    retval = "application/x-elc";
-                    break;
-                case ".env":
-                    retval = "application/x-envoy";
-                    break;
-                case ".eps":
-                    retval = "application/postscript";
-                    break;
-                case ".es":
-                    retval = "application/x-esrehber";
-                    break;
-                case ".etx":
-                    retval = "text/x-setext";
-                    break;
-                case ".evy":
-                    retval = "application/envoy";
-                    break;
-                case ".exe":
-                    retval = "application/octet-stream";
-                    break;
-                case ".f":
-                    retval = "text/plain";
-                    break;
-                case ".f77":
-                    retval = "text/x-fortran";
-                    break;
-                case ".f90":
-                    retval = "text/plain";
-                    break;
-                case ".fdf":
-                    retval = "application/vnd.fdf";
-                    break;
-                case ".fif":
-                    retval = "image/fif";
-                    break;
-                case ".fli":
-                    retval = "video/fli";
-                    break;
-                case ".flo":
-                    retval = "image/florian";
-                    break;
-                case ".flx":
-                    retval = "text/vnd.fmi.flexstor";
-                    break;
-                case ".fmf":
-                    retval = "video/x-atomic3d-feature";
-                    break;
-                case ".for":
-                    retval = "text/x-fortran";
-                    break;
-                case ".fpx":
-                    retval = "image/vnd.fpx";
-                    break;
-                case ".webp":
-                    retval = "image/webp";
-                    break;
-                case ".svg":
-                    retval = "image/svg+xml";
-                    break;
-                case ".frl":
-                    retval = "application/freeloader";
-                    break;
-                case ".funk":
-                    retval = "audio/make";
-                    break;
-                case ".g":
-                    retval = "text/plain";
-                    break;
-                case ".g3":
-                    retval = "image/g3fax";
-                    break;
-                case ".gif":
-                    retval = "image/gif";
-                    break;
-                case ".gl":
-                    retval = "video/gl";
-                    break;
-                case ".gsd":
-                    retval = "audio/x-gsm";
-                    break;
-                case ".gsm":
-                    retval = "audio/x-gsm";
-                    break;
-                case ".gsp":
-                    retval = "application/x-gsp";
-                    break;
-                case ".gss":
-                    retval = "application/x-gss";
-                    break;
-                case ".gtar":
-                    retval = "application/x-gtar";
-                    break;
-                case ".gz":
-                    retval = "application/x-gzip";
-                    break;
-                case ".gzip":
-                    retval = "application/x-gzip";
-                    break;
-                case ".h":
-                    retval = "text/plain";
-                    break;
-                case ".hdf":
-                    retval = "application/x-hdf";
-                    break;
-                case ".help":
-                    retval = "application/x-helpfile";
-                    break;
-                case ".hgl":
-                    retval = "application/vnd.hp-hpgl";
-                    break;
-                case ".hh":
-                    retval = "text/plain";
-                    break;
-                case ".hlb":
-                    retval = "text/x-script";
-                    break;
-                case ".hlp":
-                    retval = "application/hlp";
-                    break;
-                case ".hpg":
-                    retval = "application/vnd.hp-hpgl";
-                    break;
-                case ".hpgl":
-                    retval = "application/vnd.hp-hpgl";
-                    break;
-                case ".hqx":
-                    retval = "application/binhex";
-                    break;
-                case ".hta":
-                    retval = "application/hta";
-                    break;
-                case ".htc":
-                    retval = "text/x-component";
-                    break;
-                case ".htm":
-                    retval = "text/html";
-                    break;
-                case ".html":
-                    retval = "text/html";
-                    break;
-                case ".htmls":
-                    retval = "text/html";
-                    break;
-                case ".htt":
-                    retval = "text/webviewhtml";
-                    break;
-                case ".htx":
-                    retval = "text/html";
-                    break;
-                case ".ice":
-                    retval = "x-conference/x-cooltalk";
-                    break;
-                case ".ico":
-                    retval = "image/x-icon";
-                    break;
-                case ".idc":
-                    retval = "text/plain";
-                    break;
-                case ".ief":
-                    retval = "image/ief";
-                    break;
-                case ".iefs":
-                    retval = "image/ief";
-                    break;
-                case ".iges":
-                    retval = "application/iges";
-                    break;
-                case ".igs":
-                    retval = "application/iges";
-                    break;
-                case ".ima":
-                    retval = "application/x-ima";
-                    break;
-                case ".imap":
-                    retval = "application/x-httpd-imap";
-                    break;
-                case ".inf":
-                    retval = "application/inf";
-                    break;
-                case ".ins":
-                    retval = "application/x-internett-signup";
-                    break;
-                case ".ip":
-                    retval = "application/x-ip2";
-                    break;
-                case ".isu":
-                    retval = "video/x-isvideo";
-                    break;
-                case ".it":
-                    retval = "audio/it";
-                    break;
-                case ".iv":
-                    retval = "application/x-inventor";
-                    break;
-                case ".ivr":
-                    retval = "i-world/i-vrml";
-                    break;
-                case ".ivy":
-                    retval = "application/x-livescreen";
-                    break;
-                case ".jam":
-                    retval = "audio/x-jam";
-                    break;
-                case ".jav":
-                    retval = "text/plain";
-                    break;
-                case ".java":
-                    retval = "text/plain";
-                    break;
-                case ".jcm":
-                    retval = "application/x-java-commerce";
-                    break;
-                case ".jfif":
-                    retval = "image/jpeg";
-                    break;
-                case ".jfif-tbnl":
-                    retval = "image/jpeg";
-                    break;
-                case ".jpe":
-                    retval = "image/jpeg";
-                    break;
-                case ".jpeg":
-                    retval = "image/jpeg";
-                    break;
-                case ".jpg":
-                    retval = "image/jpeg";
-                    break;
-                case ".jps":
-                    retval = "image/x-jps";
-                    break;
-                case ".js":
-                    retval = "application/x-javascript";
-                    break;
-                case ".jut":
-                    retval = "image/jutvision";
-                    break;
-                case ".kar":
-                    retval = "audio/midi";
-                    break;
-                case ".ksh":
-                    retval = "application/x-ksh";
-                    break;
-                case ".la":
-                    retval = "audio/nspaudio";
-                    break;
-                case ".lam":
-                    retval = "audio/x-liveaudio";
-                    break;
-                case ".latex":
-                    retval = "application/x-latex";
-                    break;
-                case ".lha":
-                    retval = "application/octet-stream";
-                    break;
-                case ".lhx":
-                    retval = "application/octet-stream";
-                    break;
-                case ".list":
-                    retval = "text/plain";
-                    break;
-                case ".lma":
-                    retval = "audio/nspaudio";
-                    break;
-                case ".log":
-                    retval = "text/plain";
-                    break;
-                case ".lsp":
-                    retval = "application/x-lisp";
-                    break;
-                case ".lst":
-                    retval = "text/plain";
-                    break;
-                case ".lsx":
-                    retval = "text/x-la-asf";
-                    break;
-                case ".ltx":
-                    retval = "application/x-latex";
-                    break;
-                case ".lzh":
-                    retval = "application/octet-stream";
-                    break;
-                case ".lzx":
-                    retval = "application/octet-stream";
-                    break;
-                case ".m":
-                    retval = "text/plain";
-                    break;
-                case ".m1v":
-                    retval = "video/mpeg";
-                    break;
-                case ".m2a":
-                    retval = "audio/mpeg";
-                    break;
-                case ".m2v":
-                    retval = "video/mpeg";
-                    break;
-                case ".m3u":
-                    retval = "audio/x-mpequrl";
-                    break;
-                case ".man":
-                    retval = "application/x-troff-man";
-                    break;
-                case ".map":
-                    retval = "application/x-navimap";
-                    break;
-                case ".mar":
-                    retval = "text/plain";
-                    break;
-                case ".mbd":
-                    retval = "application/mbedlet";
-                    break;
-                case ".mcd":
-                    retval = "application/mcad";
-                    break;
-                case ".mcf":
-                    retval = "text/mcf";
-                    break;
-                case ".mcp":
-                    retval = "application/netmc";
-                    break;
-                case ".me":
-                    retval = "application/x-troff-me";
-                    break;
-                case ".mht":
-                    retval = "message/rfc822";
-                    break;
-                case ".mhtml":
-                    retval = "message/rfc822";
-                    break;
-                case ".mid":
-                    retval = "audio/midi";
-                    break;
-                case ".midi":
-                    retval = "audio/midi";
-                    break;
-                case ".mif":
-                    retval = "application/x-mif";
-                    break;
-                case ".mime":
-                    retval = "message/rfc822";
-                    break;
-                case ".mjf":
-                    retval = "audio/x-vnd.audioexplosion.mjuicemediafile";
-                    break;
-                case ".mjpg":
-                    retval = "video/x-motion-jpeg";
-                    break;
-                case ".mm":
-                    retval = "application/base64";
-                    break;
-                case ".mme":
-                    retval = "application/base64";
-                    break;
-                case ".mod":
-                    retval = "audio/mod";
-                    break;
-                case ".moov":
-                    retval = "video/quicktime";
-                    break;
-                case ".mov":
-                    retval = "video/quicktime";
-                    break;
-                case ".movie":
-                    retval = "video/x-sgi-movie";
-                    break;
-                case ".mp2":
-                    retval = "audio/mpeg";
-                    break;
-                case ".mp3":
-                    retval = "audio/mpeg";
-                    break;
-                case ".mpa":
-                    retval = "audio/mpeg";
-                    break;
-                case ".mpc":
-                    retval = "application/x-project";
-                    break;
-                case ".mpe":
-                    retval = "video/mpeg";
-                    break;
-                case ".mpeg":
-                    retval = "video/mpeg";
-                    break;
-                case ".mpg":
-                    retval = "video/mpeg";
-                    break;
-                case ".mpga":
-                    retval = "audio/mpeg";
-                    break;
-                case ".mpp":
-                    retval = "application/vnd.ms-project";
-                    break;
-                case ".mpt":
-                    retval = "application/vnd.ms-project";
-                    break;
-                case ".mpv":
-                    retval = "application/vnd.ms-project";
-                    break;
-                case ".mpx":
-                    retval = "application/vnd.ms-project";
-                    break;
-                case ".mrc":
-                    retval = "application/marc";
-                    break;
-                case ".ms":
-                    retval = "application/x-troff-ms";
-                    break;
-                case ".mv":
-                    retval = "video/x-sgi-movie";
-                    break;
-                case ".my":
-                    retval = "audio/make";
-                    break;
-                case ".mzz":
-                    retval = "application/x-vnd.audioexplosion.mzz";
-                    break;
-                case ".nap":
-                    retval = "image/naplps";
-                    break;
-                case ".naplps":
-                    retval = "image/naplps";
-                    break;
-                case ".nc":
-                    retval = "application/x-netcdf";
-                    break;
-                case ".ncm":
-                    retval = "application/vnd.nokia.configuration-message";
-                    break;
-                case ".nif":
-                    retval = "image/x-niff";
-                    break;
-                case ".niff":
-                    retval = "image/x-niff";
-                    break;
-                case ".nix":
-                    retval = "application/x-mix-transfer";
-                    break;
-                case ".nsc":
-                    retval = "application/x-conference";
-                    break;
-                case ".nvd":
-                    retval = "application/x-navidoc";
-                    break;
-                case ".o":
-                    retval = "application/octet-stream";
-                    break;
-                case ".oda":
-                    retval = "application/oda";
-                    break;
-                case ".omc":
-                    retval = "application/x-omc";
-                    break;
-                case ".omcd":
-                    retval = "application/x-omcdatamaker";
-                    break;
-                case ".omcr":
-                    retval = "application/x-omcregerator";
-                    break;
-                case ".p":
-                    retval = "text/x-pascal";
-                    break;
-                case ".p10":
-                    retval = "application/pkcs10";
-                    break;
-                case ".p12":
-                    retval = "application/pkcs-12";
-                    break;
-                case ".p7a":
-                    retval = "application/x-pkcs7-signature";
-                    break;
-                case ".p7c":
-                    retval = "application/pkcs7-mime";
-                    break;
-                case ".p7m":
-                    retval = "application/pkcs7-mime";
-                    break;
-                case ".p7r":
-                    retval = "application/x-pkcs7-certreqresp";
-                    break;
-                case ".p7s":
-                    retval = "application/pkcs7-signature";
-                    break;
-                case ".part":
-                    retval = "application/pro_eng";
-                    break;
-                case ".pas":
-                    retval = "text/pascal";
-                    break;
-                case ".pbm":
-                    retval = "image/x-portable-bitmap";
-                    break;
-                case ".pcl":
-                    retval = "application/vnd.hp-pcl";
-                    break;
-                case ".pct":
-                    retval = "image/x-pict";
-                    break;
-                case ".pcx":
-                    retval = "image/x-pcx";
-                    break;
-                case ".pdb":
-                    retval = "chemical/x-pdb";
-                    break;
-                case ".pdf":
-                    retval = "application/pdf";
-                    break;
-                case ".pfunk":
-                    retval = "audio/make";
-                    break;
-                case ".pgm":
-                    retval = "image/x-portable-greymap";
-                    break;
-                case ".pic":
-                    retval = "image/pict";
-                    break;
-                case ".pict":
-                    retval = "image/pict";
-                    break;
-                case ".pkg":
-                    retval = "application/x-newton-compatible-pkg";
-                    break;
-                case ".pko":
-                    retval = "application/vnd.ms-pki.pko";
-                    break;
-                case ".pl":
-                    retval = "text/plain";
-                    break;
-                case ".plx":
-                    retval = "application/x-pixclscript";
-                    break;
-                case ".pm":
-                    retval = "image/x-xpixmap";
-                    break;
-                case ".pm4":
-                    retval = "application/x-pagemaker";
-                    break;
-                case ".pm5":
-                    retval = "application/x-pagemaker";
-                    break;
-                case ".png":
-                    retval = "image/png";
-                    break;
-                case ".pnm":
-                    retval = "application/x-portable-anymap";
-                    break;
-                case ".pot":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".pov":
-                    retval = "model/x-pov";
-                    break;
-                case ".ppa":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".ppm":
-                    retval = "image/x-portable-pixmap";
-                    break;
-                case ".pps":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".ppt":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".ppz":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".pre":
-                    retval = "application/x-freelance";
-                    break;
-                case ".prt":
-                    retval = "application/pro_eng";
-                    break;
-                case ".ps":
-                    retval = "application/postscript";
-                    break;
-                case ".psd":
-                    retval = "application/octet-stream";
-                    break;
-                case ".pvu":
-                    retval = "paleovu/x-pv";
-                    break;
-                case ".pwz":
-                    retval = "application/vnd.ms-powerpoint";
-                    break;
-                case ".py":
-                    retval = "text/x-script.phyton";
-                    break;
-                case ".pyc":
-                    retval = "applicaiton/x-bytecode.python";
-                    break;
-                case ".qcp":
-                    retval = "audio/vnd.qcelp";
-                    break;
-                case ".qd3":
-                    retval = "x-world/x-3dmf";
-                    break;
-                case ".qd3d":
-                    retval = "x-world/x-3dmf";
-                    break;
-                case ".qif":
-                    retval = "image/x-quicktime";
-                    break;
-                case ".qt":
-                    retval = "video/quicktime";
-                    break;
-                case ".qtc":
-                    retval = "video/x-qtc";
-                    break;
-                case ".qti":
-                    retval = "image/x-quicktime";
-                    break;
-                case ".qtif":
-                    retval = "image/x-quicktime";
-                    break;
-                case ".ra":
-                    retval = "audio/x-pn-realaudio";
-                    break;
-                case ".ram":
-                    retval = "audio/x-pn-realaudio";
-                    break;
-                case ".ras":
-                    retval = "application/x-cmu-raster";
-                    break;
-                case ".rast":
-                    retval = "image/cmu-raster";
-                    break;
-                case ".rexx":
-                    retval = "text/x-script.rexx";
-                    break;
-                case ".rf":
-                    retval = "image/vnd.rn-realflash";
-                    break;
-                case ".rgb":
-                    retval = "image/x-rgb";
-                    break;
-                case ".rm":
-                    retval = "application/vnd.rn-realmedia";
-                    break;
-                case ".rmi":
-                    retval = "audio/mid";
-                    break;
-                case ".rmm":
-                    retval = "audio/x-pn-realaudio";
-                    break;
-                case ".rmp":
-                    retval = "audio/x-pn-realaudio";
-                    break;
-                case ".rng":
-                    retval = "application/ringing-tones";
-                    break;
-                case ".rnx":
-                    retval = "application/vnd.rn-realplayer";
-                    break;
-                case ".roff":
-                    retval = "application/x-troff";
-                    break;
-                case ".rp":
-                    retval = "image/vnd.rn-realpix";
-                    break;
-                case ".rpm":
-                    retval = "audio/x-pn-realaudio-plugin";
-                    break;
-                case ".rt":
-                    retval = "text/richtext";
-                    break;
-                case ".rtf":
-                    retval = "text/richtext";
-                    break;
-                case ".rtx":
-                    retval = "text/richtext";
-                    break;
-                case ".rv":
-                    retval = "video/vnd.rn-realvideo";
-                    break;
-                case ".s":
-                    retval = "text/x-asm";
-                    break;
-                case ".s3m":
-                    retval = "audio/s3m";
-                    break;
-                case ".saveme":
-                    retval = "application/octet-stream";
-                    break;
-                case ".sbk":
-                    retval = "application/x-tbook";
-                    break;
-                case ".scm":
-                    retval = "application/x-lotusscreencam";
-                    break;
-                case ".sdml":
-                    retval = "text/plain";
-                    break;
-                case ".sdp":
-                    retval = "application/sdp";
-                    break;
-                case ".sdr":
-                    retval = "application/sounder";
-                    break;
-                case ".sea":
-                    retval = "application/sea";
-                    break;
-                case ".set":
-                    retval = "application/set";
-                    break;
-                case ".sgm":
-                    retval = "text/sgml";
-                    break;
-                case ".sgml":
-                    retval = "text/sgml";
-                    break;
-                case ".sh":
-                    retval = "application/x-sh";
-                    break;
-                case ".shar":
-                    retval = "application/x-shar";
-                    break;
-                case ".shtml":
-                    retval = "text/html";
-                    break;
-                case ".sid":
-                    retval = "audio/x-psid";
-                    break;
-                case ".sit":
-                    retval = "application/x-sit";
-                    break;
-                case ".skd":
-                    retval = "application/x-koan";
-                    break;
-                case ".skm":
-                    retval = "application/x-koan";
-                    break;
-                case ".skp":
-                    retval = "application/x-koan";
-                    break;
-                case ".skt":
-                    retval = "application/x-koan";
-                    break;
-                case ".sl":
-                    retval = "application/x-seelogo";
-                    break;
-                case ".smi":
-                    retval = "application/smil";
-                    break;
-                case ".smil":
-                    retval = "application/smil";
-                    break;
-                case ".snd":
-                    retval = "audio/basic";
-                    break;
-                case ".sol":
-                    retval = "application/solids";
-                    break;
-                case ".spc":
-                    retval = "text/x-speech";
-                    break;
-                case ".spl":
-                    retval = "application/futuresplash";
-                    break;
-                case ".spr":
-                    retval = "application/x-sprite";
-                    break;
-                case ".sprite":
-                    retval = "application/x-sprite";
-                    break;
-                case ".src":
-                    retval = "application/x-wais-source";
-                    break;
-                case ".ssi":
-                    retval = "text/x-server-parsed-html";
-                    break;
-                case ".ssm":
-                    retval = "application/streamingmedia";
-                    break;
-                case ".sst":
-                    retval = "application/vnd.ms-pki.certstore";
-                    break;
-                case ".step":
-                    retval = "application/step";
-                    break;
-                case ".stl":
-                    retval = "application/sla";
-                    break;
-                case ".stp":
-                    retval = "application/step";
-                    break;
-                case ".sv4cpio":
-                    retval = "application/x-sv4cpio";
-                    break;
-                case ".sv4crc":
-                    retval = "application/x-sv4crc";
-                    break;
-                case ".svf":
-                    retval = "image/vnd.dwg";
-                    break;
-                case ".svr":
-                    retval = "application/x-world";
-                    break;
-                case ".swf":
-                    retval = "application/x-shockwave-flash";
-                    break;
-                case ".t":
-                    retval = "application/x-troff";
-                    break;
-                case ".talk":
-                    retval = "text/x-speech";
-                    break;
-                case ".tar":
-                    retval = "application/x-tar";
-                    break;
-                case ".tbk":
-                    retval = "application/toolbook";
-                    break;
-                case ".tcl":
-                    retval = "application/x-tcl";
-                    break;
-                case ".tcsh":
-                    retval = "text/x-script.tcsh";
-                    break;
-                case ".tex":
-                    retval = "application/x-tex";
-                    break;
-                case ".texi":
-                    retval = "application/x-texinfo";
-                    break;
-                case ".texinfo":
-                    retval = "application/x-texinfo";
-                    break;
-                case ".text":
-                    retval = "text/plain";
-                    break;
-                case ".tgz":
-                    retval = "application/x-compressed";
-                    break;
-                case ".tif":
-                    retval = "image/tiff";
-                    break;
-                case ".tiff":
-                    retval = "image/tiff";
-                    break;
-                case ".tr":
-                    retval = "application/x-troff";
-                    break;
-                case ".tsi":
-                    retval = "audio/tsp-audio";
-                    break;
-                case ".tsp":
-                    retval = "application/dsptype";
-                    break;
-                case ".tsv":
-                    retval = "text/tab-separated-values";
-                    break;
-                case ".turbot":
-                    retval = "image/florian";
-                    break;
-                case ".txt":
-                    retval = "text/plain";
-                    break;
-                case ".uil":
-                    retval = "text/x-uil";
-                    break;
-                case ".uni":
-                    retval = "text/uri-list";
-                    break;
-                case ".unis":
-                    retval = "text/uri-list";
-                    break;
-                case ".unv":
-                    retval = "application/i-deas";
-                    break;
-                case ".uri":
-                    retval = "text/uri-list";
-                    break;
-                case ".uris":
-                    retval = "text/uri-list";
-                    break;
-                case ".ustar":
-                    retval = "application/x-ustar";
-                    break;
-                case ".uu":
-                    retval = "application/octet-stream";
-                    break;
-                case ".uue":
-                    retval = "text/x-uuencode";
-                    break;
-                case ".vcd":
-                    retval = "application/x-cdlink";
-                    break;
-                case ".vcs":
-                    retval = "text/x-vcalendar";
-                    break;
-                case ".vda":
-                    retval = "application/vda";
-                    break;
-                case ".vdo":
-                    retval = "video/vdo";
-                    break;
-                case ".vew":
-                    retval = "application/groupwise";
-                    break;
-                case ".viv":
-                    retval = "video/vivo";
-                    break;
-                case ".vivo":
-                    retval = "video/vivo";
-                    break;
-                case ".vmd":
-                    retval = "application/vocaltec-media-desc";
-                    break;
-                case ".vmf":
-                    retval = "application/vocaltec-media-file";
-                    break;
-                case ".voc":
-                    retval = "audio/voc";
-                    break;
-                case ".vos":
-                    retval = "video/vosaic";
-                    break;
-                case ".vox":
-                    retval = "audio/voxware";
-                    break;
-                case ".vqe":
-                    retval = "audio/x-twinvq-plugin";
-                    break;
-                case ".vqf":
-                    retval = "audio/x-twinvq";
-                    break;
-                case ".vql":
-                    retval = "audio/x-twinvq-plugin";
-                    break;
-                case ".vrml":
-                    retval = "application/x-vrml";
-                    break;
-                case ".vrt":
-                    retval = "x-world/x-vrt";
-                    break;
-                case ".vsd":
-                    retval = "application/x-visio";
-                    break;
-                case ".vst":
-                    retval = "application/x-visio";
-                    break;
-                case ".vsw":
-                    retval = "application/x-visio";
-                    break;
-                case ".w60":
-                    retval = "application/wordperfect6.0";
-                    break;
-                case ".w61":
-                    retval = "application/wordperfect6.1";
-                    break;
-                case ".w6w":
-                    retval = "application/msword";
-                    break;
-                case ".wav":
-                    retval = "audio/wav";
-                    break;
-                case ".wb1":
-                    retval = "application/x-qpro";
-                    break;
-                case ".wbmp":
-                    retval = "image/vnd.wap.wbmp";
-                    break;
-                case ".web":
-                    retval = "application/vnd.xara";
-                    break;
-                case ".wiz":
-                    retval = "application/msword";
-                    break;
-                case ".wk1":
-                    retval = "application/x-123";
-                    break;
-                case ".wmf":
-                    retval = "windows/metafile";
-                    break;
-                case ".wml":
-                    retval = "text/vnd.wap.wml";
-                    break;
-                case ".wmlc":
-                    retval = "application/vnd.wap.wmlc";
-                    break;
-                case ".wmls":
-                    retval = "text/vnd.wap.wmlscript";
-                    break;
-                case ".wmlsc":
-                    retval = "application/vnd.wap.wmlscriptc";
-                    break;
-                case ".word":
-                    retval = "application/msword";
-                    break;
-                case ".wp":
-                    retval = "application/wordperfect";
-                    break;
-                case ".wp5":
-                    retval = "application/wordperfect";
-                    break;
-                case ".wp6":
-                    retval = "application/wordperfect";
-                    break;
-                case ".wpd":
-                    retval = "application/wordperfect";
-                    break;
-                case ".wq1":
-                    retval = "application/x-lotus";
-                    break;
-                case ".wri":
-                    retval = "application/mswrite";
-                    break;
-                case ".wrl":
-                    retval = "application/x-world";
-                    break;
-                case ".wrz":
-                    retval = "x-world/x-vrml";
-                    break;
-                case ".wsc":
-                    retval = "text/scriplet";
-                    break;
-                case ".wsrc":
-                    retval = "application/x-wais-source";
-                    break;
-                case ".wtk":
-                    retval = "application/x-wintalk";
-                    break;
-                case ".xbm":
-                    retval = "image/x-xbitmap";
-                    break;
-                case ".xdr":
-                    retval = "video/x-amt-demorun";
-                    break;
-                case ".xgz":
-                    retval = "xgl/drawing";
-                    break;
-                case ".xif":
-                    retval = "image/vnd.xiff";
-                    break;
-                case ".xl":
-                    retval = "application/excel";
-                    break;
-                case ".xla":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlb":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlc":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xld":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlk":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xll":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlm":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xls":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlt":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlv":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xlw":
-                    retval = "application/vnd.ms-excel";
-                    break;
-                case ".xm":
-                    retval = "audio/xm";
-                    break;
-                case ".xml":
-                    retval = "application/xml";
-                    break;
-                case ".xmz":
-                    retval = "xgl/movie";
-                    break;
-                case ".xpix":
-                    retval = "application/x-vnd.ls-xpix";
-                    break;
-                case ".xpm":
-                    retval = "image/xpm";
-                    break;
-                case ".x-png":
-                    retval = "image/png";
-                    break;
-                case ".xsr":
-                    retval = "video/x-amt-showrun";
-                    break;
-                case ".xwd":
-                    retval = "image/x-xwd";
-                    break;
-                case ".xyz":
-                    retval = "chemical/x-pdb";
-                    break;
-                case ".z":
-                    retval = "application/x-compressed";
-                    break;
-                case ".zip":
-                    retval = "application/zip";
-                    break;
-                case ".zoo":
-                    retval = "application/octet-stream";
-                    break;
-                case ".zsh":
-                    retval = "text/x-script.zsh";
-                    break;
-                default:
-                    retval = "application/octet-stream";
-                    break;
-            }
+        if (fileName.indexOf('.') < 0) {
+            return "";
         }
-        return retval;
+        String mimeType = MimeTypeRegistry.getInstance().getMimeType(fileName);
+        return mimeType != null ? mimeType : MimeTypeRegistry.DEFAULT_MIME_TYPE;
     }
 
-}
\ No newline at end of file
+}
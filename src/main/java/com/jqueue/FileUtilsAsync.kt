@@ -0,0 +1,196 @@
+package com.jqueue
+
+import android.content.Context
+import android.net.Uri
+import android.os.CancellationSignal
+import android.os.OperationCanceledException
+import com.hqyatu.destination.utils.FileUtils
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import kotlinx.coroutines.withContext
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 传输状态：进行中的进度，或者最终结果
+ */
+sealed class TransferState<out T> {
+    /**
+     * @param totalBytes 总大小，未知时为 -1
+     */
+    class Progress(val bytesCopied: Long, val totalBytes: Long) : TransferState<Nothing>()
+
+    class Done<T>(val result: T) : TransferState<T>()
+}
+
+/**
+ * [FileUtils] 阻塞 I/O 的挂起版本
+ *
+ * 所有操作运行在专用的有界线程池 [dispatcher] 上，不会占满 Dispatchers.IO，也不会阻塞主线程；
+ * 复制和导入在每个数据块之间检查协程是否被取消，取消后立即停止（导入保留断点文件，下次继续）。
+ */
+object FileUtilsAsync {
+    const val DEFAULT_PARALLELISM = 4
+
+    private val threadCount = AtomicInteger()
+
+    /**
+     * 文件 I/O 专用线程池，线程数固定，批量操作在其中重叠执行
+     */
+    val dispatcher: CoroutineDispatcher = Executors.newFixedThreadPool(
+        minOf(DEFAULT_PARALLELISM, maxOf(2, Runtime.getRuntime().availableProcessors()))
+    ) { runnable ->
+        Thread(runnable, "FileUtilsAsync-${threadCount.incrementAndGet()}").apply { isDaemon = true }
+    }.asCoroutineDispatcher()
+
+    suspend fun getPath(context: Context, uri: Uri): String? =
+        withContext(dispatcher) { FileUtils.getPath(context, uri) }
+
+    suspend fun getPaths(context: Context, uris: Collection<Uri>): Map<Uri, String> =
+        withContext(dispatcher) { FileUtils.getPaths(context, uris) }
+
+    suspend fun getFileName(context: Context, uri: Uri): String? =
+        withContext(dispatcher) { FileUtils.getFileName(context, uri) }
+
+    suspend fun getDataColumn(
+        context: Context,
+        uri: Uri,
+        selection: String? = null,
+        selectionArgs: Array<String>? = null
+    ): String? = withContext(dispatcher) { FileUtils.getDataColumn(context, uri, selection, selectionArgs) }
+
+    suspend fun readBytesFromFile(filePath: String): ByteArray? =
+        withContext(dispatcher) { FileUtils.readBytesFromFile(filePath) }
+
+    /**
+     * 复制并关闭两端的流
+     *
+     * @param onProgress 在 I/O 线程回调，参数为已复制字节数和总大小（未知时为 -1）
+     * @return 复制的字节数
+     * @throws IOException 复制失败
+     */
+    suspend fun copy(
+        inputStream: InputStream,
+        outputStream: OutputStream,
+        onProgress: ((Long, Long) -> Unit)? = null
+    ): Long = cancellable(onProgress) { listener, signal ->
+        try {
+            FileTransfer.copy(inputStream, outputStream, listener, signal)
+        } finally {
+            inputStream.close()
+            outputStream.close()
+        }
+    }
+
+    /**
+     * 把 [uri] 的内容导入文档缓存，相同内容只存一份
+     *
+     * @return 导入的文件，无法创建时为 null
+     */
+    suspend fun importUri(
+        context: Context,
+        uri: Uri,
+        onProgress: ((Long, Long) -> Unit)? = null
+    ): File? = cancellable(onProgress) { listener, signal ->
+        ContentAddressedStore.get(context).importUri(context, uri, UriImporter.ProgressListener { bytes, total ->
+            listener.onProgress(bytes, total)
+        }, signal)
+    }
+
+    /**
+     * 同时导入多个 Uri，最多 [parallelism] 个并发；单个失败（I/O 错误或提供方抛出的运行时异常）不影响其它，结果为 null
+     */
+    suspend fun importAll(
+        context: Context,
+        uris: Collection<Uri>,
+        parallelism: Int = DEFAULT_PARALLELISM
+    ): Map<Uri, File?> = coroutineScope {
+        val permits = Semaphore(parallelism)
+        uris.distinct().map { uri ->
+            async {
+                uri to permits.withPermit {
+                    try {
+                        importUri(context, uri)
+                    } catch (e: CancellationException) {
+                        throw e
+                    } catch (e: IOException) {
+                        e.printStackTrace()
+                        null
+                    } catch (e: RuntimeException) {
+                        // 提供方抛出的 SecurityException、IllegalArgumentException 等只影响这一个 Uri
+                        e.printStackTrace()
+                        null
+                    }
+                }
+            }
+        }.awaitAll().toMap()
+    }
+
+    /**
+     * [copy] 的 Flow 版本：先发出进度，最后发出 [TransferState.Done]；
+     * 收集方处理较慢时只保留最新进度，停止收集即取消复制
+     */
+    fun copyFlow(inputStream: InputStream, outputStream: OutputStream): Flow<TransferState<Long>> =
+        transferFlow { onProgress -> copy(inputStream, outputStream, onProgress) }
+
+    /**
+     * [importUri] 的 Flow 版本
+     */
+    fun importFlow(context: Context, uri: Uri): Flow<TransferState<File?>> =
+        transferFlow { onProgress -> importUri(context, uri, onProgress) }
+
+    private fun <T> transferFlow(
+        block: suspend (onProgress: (Long, Long) -> Unit) -> T
+    ): Flow<TransferState<T>> = flow {
+        coroutineScope {
+            val states = Channel<TransferState<T>>(Channel.CONFLATED)
+            launch {
+                val result = block { bytes, total -> states.offer(TransferState.Progress(bytes, total)) }
+                // 最后一个元素不会被合并掉
+                states.offer(TransferState.Done(result))
+                states.close()
+            }
+            for (state in states) {
+                emit(state)
+            }
+        }
+    }
+
+    /**
+     * 在 [dispatcher] 上运行 [block]，把协程取消转换成 [CancellationSignal]：
+     * 每个数据块之后的进度回调检查协程状态，已取消则触发 signal，复制在下一个数据块之前停止
+     */
+    private suspend fun <T> cancellable(
+        onProgress: ((Long, Long) -> Unit)?,
+        block: (FileTransfer.ProgressListener, CancellationSignal) -> T
+    ): T = withContext(dispatcher) {
+        val job = coroutineContext[Job]
+        val signal = CancellationSignal()
+        val listener = FileTransfer.ProgressListener { bytes, total ->
+            if (job != null && !job.isActive) {
+                signal.cancel()
+            }
+            onProgress?.invoke(bytes, total)
+        }
+        try {
+            block(listener, signal)
+        } catch (e: OperationCanceledException) {
+            throw CancellationException(e.message)
+        }
+    }
+}
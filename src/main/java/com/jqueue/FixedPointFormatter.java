@@ -0,0 +1,148 @@
+package com.jqueue;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Drop-in replacement for {@code String.format("%.<precision>f", value)}.
+ * <p>
+ * Formatter rounds the shortest decimal representation of the value ({@link Double#toString})
+ * half up, and so does this class: the common case scales the value by a power of ten and rounds
+ * in {@code long} arithmetic; values whose scaled fraction is too close to .5 for the double
+ * product to decide, and large values or precisions, are rounded with {@link BigDecimal}. NaN and
+ * infinities go through {@link String#format}. Digits and decimal separator follow the default
+ * locale like Formatter's, and negative values that round to zero keep their sign ("-0.0").
+ * <p>
+ * {@link #formatTo(double, int, StringBuilder)} appends to a caller-owned builder and does not
+ * allocate on the fast path.
+ */
+public final class FixedPointFormatter {
+    private static final int MAX_FAST_PRECISION = 15;
+    /**
+     * Scaled values below 2^40 have an ulp of 2^-12, far below {@link #TIE_WINDOW}.
+     */
+    private static final double MAX_FAST_SCALED = 0x1p40;
+    private static final double TIE_WINDOW = 1e-3;
+
+    private static final long[] POW10 = new long[MAX_FAST_PRECISION + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(32);
+        }
+    };
+
+    private static volatile FixedPointFormatter sDefault;
+
+    private final Locale locale;
+    private final char decimalSeparator;
+    private final char zeroDigit;
+
+    public FixedPointFormatter(@NonNull Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.locale = locale;
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.zeroDigit = symbols.getZeroDigit();
+    }
+
+    /**
+     * @return The formatter for the current default locale, rebuilt only when the locale changed.
+     */
+    @NonNull
+    public static FixedPointFormatter getInstance() {
+        Locale locale = Locale.getDefault();
+        FixedPointFormatter formatter = sDefault;
+        if (formatter == null || !formatter.locale.equals(locale)) {
+            formatter = new FixedPointFormatter(locale);
+            sDefault = formatter;
+        }
+        return formatter;
+    }
+
+    /**
+     * @return {@code value} with exactly {@code precision} fraction digits.
+     */
+    @NonNull
+    public String format(double value, int precision) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return formatTo(value, precision, buffer).toString();
+    }
+
+    /**
+     * Appends {@code value} with exactly {@code precision} fraction digits to {@code out}.
+     *
+     * @return {@code out}
+     */
+    @NonNull
+    public StringBuilder formatTo(double value, int precision, @NonNull StringBuilder out) {
+        if (precision < 0) {
+            throw new IllegalArgumentException("Negative precision: " + precision);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return out.append(String.format(locale, "%." + precision + "f", value));
+        }
+        // the sign bit, so -0.0 and values rounding to zero keep their "-"
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+        }
+        double magnitude = Math.abs(value);
+        if (precision <= MAX_FAST_PRECISION) {
+            double scaled = magnitude * POW10[precision];
+            if (scaled < MAX_FAST_SCALED) {
+                double floor = Math.floor(scaled);
+                double fraction = scaled - floor;
+                if (Math.abs(fraction - 0.5) > TIE_WINDOW) {
+                    long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+                    return appendFixed(out, rounded, precision);
+                }
+            }
+        }
+        return appendDecimal(out, new BigDecimal(Double.toString(magnitude)).setScale(precision, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Appends {@code unscaled / 10^precision}.
+     */
+    private StringBuilder appendFixed(StringBuilder out, long unscaled, int precision) {
+        long pow = POW10[precision];
+        appendDigits(out, unscaled / pow);
+        if (precision > 0) {
+            out.append(decimalSeparator);
+            long fraction = unscaled % pow;
+            for (long digit = pow / 10; digit > 0; digit /= 10) {
+                out.append((char) (zeroDigit + (int) (fraction / digit)));
+                fraction %= digit;
+            }
+        }
+        return out;
+    }
+
+    private StringBuilder appendDecimal(StringBuilder out, BigDecimal value) {
+        String plain = value.toPlainString();
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            out.append(c == '.' ? decimalSeparator : (char) (zeroDigit + (c - '0')));
+        }
+        return out;
+    }
+
+    private void appendDigits(StringBuilder out, long value) {
+        if (value >= 10) {
+            appendDigits(out, value / 10);
+        }
+        out.append((char) (zeroDigit + (int) (value % 10)));
+    }
+}
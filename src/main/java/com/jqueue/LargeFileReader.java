@@ -0,0 +1,192 @@
+package com.jqueue;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads file content without pulling large files onto the Java heap.
+ * <p>
+ * Files smaller than {@link #getMapThreshold()} are read into a {@code byte[]}; larger files are
+ * memory mapped, either whole with {@link #map(File)} or in windows with
+ * {@link #chunks(File, int)}.
+ */
+public final class LargeFileReader {
+    public static final long DEFAULT_MAP_THRESHOLD = 4L * 1024 * 1024;
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static volatile long sMapThreshold = DEFAULT_MAP_THRESHOLD;
+
+    private LargeFileReader() {
+    }
+
+    public static long getMapThreshold() {
+        return sMapThreshold;
+    }
+
+    /**
+     * Sets the size from which {@link #read(File)} maps files instead of copying them to the heap.
+     */
+    public static void setMapThreshold(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + bytes);
+        }
+        sMapThreshold = bytes;
+    }
+
+    /**
+     * Reads the whole file into a new array, looping until every byte has been read.
+     *
+     * @throws IOException if the file is too large for an array or shrinks while being read.
+     */
+    public static byte[] readFully(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            long length = inputStream.getChannel().size();
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IOException("File too large to read into memory: " + file + " (" + length + " bytes)");
+            }
+            byte[] bytes = new byte[(int) length];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    throw new EOFException("Expected " + bytes.length + " bytes but read " + offset + " from " + file);
+                }
+                offset += read;
+            }
+            return bytes;
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    /**
+     * Returns the file content as a read-only buffer: a wrapped heap array below the map
+     * threshold, a {@link MappedByteBuffer} above it.
+     *
+     * @throws IOException if the file is too large for a single buffer; use {@link #chunks(File)}.
+     */
+    public static ByteBuffer read(File file) throws IOException {
+        if (file.length() < sMapThreshold) {
+            return ByteBuffer.wrap(readFully(file)).asReadOnlyBuffer();
+        }
+        return map(file);
+    }
+
+    /**
+     * Maps the whole file read-only. The mapping stays valid after this method returns.
+     *
+     * @throws IOException if the file is larger than a buffer can address; use {@link #chunks(File)}.
+     */
+    public static MappedByteBuffer map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // FileChannel.map would throw IllegalArgumentException
+                throw new IOException("File too large to map whole, use chunks(): " + file + " (" + size + " bytes)");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            close(randomAccessFile);
+        }
+    }
+
+    /**
+     * Iterates over the file in mapped windows of at most {@code chunkSize} bytes. Each window is
+     * only mapped when {@link ChunkIterator#next()} asks for it, so the heap cost is constant
+     * regardless of the file size. Close the iterator if it is not consumed to the end.
+     */
+    public static ChunkIterator chunks(File file, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        return new ChunkIterator(new RandomAccessFile(file, "r"), chunkSize);
+    }
+
+    public static ChunkIterator chunks(File file) throws IOException {
+        return chunks(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static final class ChunkIterator implements Iterator<ByteBuffer>, Closeable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final long size;
+        private final int chunkSize;
+        private long position;
+        private boolean closed;
+
+        ChunkIterator(RandomAccessFile file, int chunkSize) throws IOException {
+            this.file = file;
+            this.channel = file.getChannel();
+            this.size = channel.size();
+            this.chunkSize = chunkSize;
+            if (size == 0) {
+                close();
+            }
+        }
+
+        /**
+         * @return Offset in the file of the chunk the next call to {@link #next()} returns.
+         */
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !closed && position < size;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long length = Math.min(chunkSize, size - position);
+            MappedByteBuffer chunk;
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            } catch (IOException e) {
+                close();
+                throw new IllegalStateException("Unable to map chunk at " + position, e);
+            }
+            position += length;
+            if (position >= size) {
+                close();
+            }
+            return chunk;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                LargeFileReader.close(file);
+            }
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
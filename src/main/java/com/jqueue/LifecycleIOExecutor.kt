@@ -0,0 +1,190 @@
+package com.jqueue
+
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.lifecycleScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import kotlinx.coroutines.withContext
+import java.util.WeakHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * IO 任务优先级
+ */
+enum class IOPriority {
+    /**
+     * 用户正在等待结果的任务，可以使用全部并发数
+     */
+    USER_VISIBLE,
+
+    /**
+     * 预加载、清理等后台任务，最多占用 [LifecycleIOExecutor.backgroundParallelism] 个并发，
+     * 其余名额始终留给 [USER_VISIBLE]
+     */
+    BACKGROUND
+}
+
+/**
+ * 绑定到单个 [LifecycleOwner] 的 IO 执行器
+ *
+ * 任务在 owner 的 lifecycleScope 中启动，owner 销毁时一起取消；每个 owner 同时运行的任务数
+ * 受 [parallelism] 限制，超出的任务挂起排队而不是占用共享的 Dispatchers.IO 线程，
+ * 单个页面因此无法占满 IO 线程池。
+ */
+class LifecycleIOExecutor internal constructor(
+    private val owner: LifecycleOwner,
+    val parallelism: Int = DEFAULT_PARALLELISM,
+    val backgroundParallelism: Int = DEFAULT_BACKGROUND_PARALLELISM
+) {
+    private val permits = Semaphore(parallelism)
+    private val backgroundPermits = Semaphore(minOf(backgroundParallelism, parallelism))
+    private val lanes = IOPriority.values().map { LaneMetrics() }
+
+    /**
+     * 排队等待与执行耗时统计，单位纳秒
+     */
+    class Metrics internal constructor(
+        val queued: Int,
+        val running: Int,
+        val completed: Long,
+        val totalWaitNanos: Long,
+        val maxWaitNanos: Long,
+        val totalRunNanos: Long,
+        val maxRunNanos: Long
+    ) {
+        val averageWaitNanos: Long get() = if (completed == 0L) 0 else totalWaitNanos / completed
+        val averageRunNanos: Long get() = if (completed == 0L) 0 else totalRunNanos / completed
+
+        override fun toString() = "Metrics[queued=$queued, running=$running, completed=$completed, " +
+                "avgWait=${averageWaitNanos / 1000}us, maxWait=${maxWaitNanos / 1000}us, " +
+                "avgRun=${averageRunNanos / 1000}us, maxRun=${maxRunNanos / 1000}us]"
+    }
+
+    private class LaneMetrics {
+        val queued = AtomicInteger()
+        val running = AtomicInteger()
+        val completed = AtomicLong()
+        val totalWait = AtomicLong()
+        val maxWait = AtomicLong()
+        val totalRun = AtomicLong()
+        val maxRun = AtomicLong()
+
+        fun snapshot() = Metrics(
+            queued.get(), running.get(), completed.get(),
+            totalWait.get(), maxWait.get(), totalRun.get(), maxRun.get()
+        )
+    }
+
+    /**
+     * 在 IO 线程执行 [block]，owner 销毁时取消
+     */
+    fun launch(priority: IOPriority = IOPriority.USER_VISIBLE, block: suspend () -> Unit): Job {
+        val lane = lanes[priority.ordinal]
+        val enqueued = System.nanoTime()
+        lane.queued.incrementAndGet()
+        var dequeued = false
+        val job = owner.lifecycleScope.launch {
+            acquire(priority) {
+                val started = System.nanoTime()
+                dequeued = true
+                lane.queued.decrementAndGet()
+                lane.running.incrementAndGet()
+                try {
+                    withContext(Dispatchers.IO) { block() }
+                } finally {
+                    lane.running.decrementAndGet()
+                    record(lane, started - enqueued, System.nanoTime() - started)
+                }
+            }
+        }
+        // 排队时被取消，或 owner 已销毁、协程体根本没有执行
+        job.invokeOnCompletion {
+            if (!dequeued) {
+                lane.queued.decrementAndGet()
+            }
+        }
+        return job
+    }
+
+    fun metrics(priority: IOPriority): Metrics = lanes[priority.ordinal].snapshot()
+
+    private suspend inline fun acquire(priority: IOPriority, crossinline block: suspend () -> Unit) {
+        if (priority == IOPriority.BACKGROUND) {
+            backgroundPermits.withPermit { permits.withPermit { block() } }
+        } else {
+            permits.withPermit { block() }
+        }
+    }
+
+    private fun record(lane: LaneMetrics, waitNanos: Long, runNanos: Long) {
+        lane.completed.incrementAndGet()
+        lane.totalWait.addAndGet(waitNanos)
+        lane.totalRun.addAndGet(runNanos)
+        updateMax(lane.maxWait, waitNanos)
+        updateMax(lane.maxRun, runNanos)
+        GLOBAL.completed.incrementAndGet()
+        GLOBAL.totalWait.addAndGet(waitNanos)
+        GLOBAL.totalRun.addAndGet(runNanos)
+        updateMax(GLOBAL.maxWait, waitNanos)
+        updateMax(GLOBAL.maxRun, runNanos)
+    }
+
+    companion object {
+        const val DEFAULT_PARALLELISM = 4
+        const val DEFAULT_BACKGROUND_PARALLELISM = 1
+
+        private val GLOBAL = LaneMetrics()
+        private val executors = WeakHashMap<LifecycleOwner, LifecycleIOExecutor>()
+
+        /**
+         * 获取 [owner] 的执行器，第一次调用时创建，owner 销毁后移除；需在主线程调用
+         */
+        @JvmStatic
+        fun of(owner: LifecycleOwner): LifecycleIOExecutor = synchronized(executors) {
+            executors[owner] ?: LifecycleIOExecutor(owner).also { executor ->
+                executors[owner] = executor
+                owner.lifecycle.addObserver(LifecycleEventObserver { source, event ->
+                    if (event == Lifecycle.Event.ON_DESTROY) {
+                        synchronized(executors) { executors.remove(source) }
+                    }
+                })
+            }
+        }
+
+        /**
+         * 所有 owner 已完成任务的汇总统计，queued/running 为当前存活执行器的合计
+         */
+        @JvmStatic
+        fun globalMetrics(): Metrics {
+            var queued = 0
+            var running = 0
+            synchronized(executors) {
+                for (executor in executors.values) {
+                    for (lane in executor.lanes) {
+                        queued += lane.queued.get()
+                        running += lane.running.get()
+                    }
+                }
+            }
+            return Metrics(
+                queued, running, GLOBAL.completed.get(), GLOBAL.totalWait.get(),
+                GLOBAL.maxWait.get(), GLOBAL.totalRun.get(), GLOBAL.maxRun.get()
+            )
+        }
+
+        private fun updateMax(max: AtomicLong, value: Long) {
+            while (true) {
+                val current = max.get()
+                if (value <= current || max.compareAndSet(current, value)) {
+                    return
+                }
+            }
+        }
+    }
+}
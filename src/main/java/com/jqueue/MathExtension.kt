@@ -2,10 +2,16 @@ package com.jqueue
 
 import androidx.annotation.IntRange
 
-fun formatDoubleXBit(value: Double, @IntRange(from = 0) bit: Int) = String.format("%.${bit}f", value)
+/**
+ * 与 `String.format("%.${bit}f", value)` 结果相同，见 [FixedPointFormatter]
+ */
+fun formatDoubleXBit(value: Double, @IntRange(from = 0) bit: Int): String =
+    FixedPointFormatter.getInstance().format(value, bit)
 
-fun Double.formatXBit(@IntRange(from = 0) bit: Int) = String.format("%.${bit}f", this)
+fun Double.formatXBit(@IntRange(from = 0) bit: Int): String = FixedPointFormatter.getInstance().format(this, bit)
 
-fun formatFloatXBit(formatValue: Float, @IntRange(from = 0) bit: Int) = String.format("%.${bit}f", formatValue)
+fun formatFloatXBit(formatValue: Float, @IntRange(from = 0) bit: Int): String =
+    FixedPointFormatter.getInstance().format(formatValue.toDouble(), bit)
 
-fun Float.formatXBit(@IntRange(from = 0) bit: Int) = String.format("%.${bit}f", this)
+fun Float.formatXBit(@IntRange(from = 0) bit: Int): String =
+    FixedPointFormatter.getInstance().format(toDouble(), bit)
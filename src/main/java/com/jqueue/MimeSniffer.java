@@ -0,0 +1,315 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects the MIME type of a file from its first bytes ("magic numbers").
+ * <p>
+ * Only {@link #SNIFF_LENGTH} bytes are read, into a buffer from {@link BufferPool}. Signatures
+ * live in a byte trie with wildcard edges, so a header is matched against every signature in a
+ * single walk; the longest matching signature wins. When the content is not recognised, or it
+ * is a generic container such as zip or OLE2, the extension is looked up in
+ * {@link MimeTypeRegistry} instead.
+ * <p>
+ * A few signatures are weak: "BM" is also the start of ordinary text and the icon header is only
+ * zeros around a one, so they only decide the type when the extension is unknown; a registered
+ * extension wins over them. All other signatures are strong and win over the extension, so a
+ * JPEG saved as .png is still detected as image/jpeg.
+ */
+public final class MimeSniffer {
+    /**
+     * Number of leading bytes looked at; covers the tar header magic at offset 257.
+     */
+    public static final int SNIFF_LENGTH = 512;
+    private static final int ANY = -1;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final Node ROOT = new Node();
+    /**
+     * Container formats and the extensions whose own MIME type is more precise for them.
+     */
+    private static final Map<String, Set<String>> REFINABLE = new HashMap<>();
+
+    static {
+        // images
+        add("image/jpeg", 0, 0xFF, 0xD8, 0xFF);
+        add("image/png", 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+        add("image/gif", 0, "GIF87a");
+        add("image/gif", 0, "GIF89a");
+        addWeak("image/bmp", 0, "BM");
+        add("image/tiff", 0, 'I', 'I', 0x2A, 0x00);
+        add("image/tiff", 0, 'M', 'M', 0x00, 0x2A);
+        addWeak("image/x-icon", 0, 0x00, 0x00, 0x01, 0x00);
+        add("image/webp", 0, 'R', 'I', 'F', 'F', ANY, ANY, ANY, ANY, 'W', 'E', 'B', 'P');
+        add("image/heic", 4, "ftypheic");
+        add("image/heic", 4, "ftypheix");
+        add("image/heif", 4, "ftypmif1");
+        add("image/heif", 4, "ftypmsf1");
+        // video
+        add("video/mp4", 4, "ftyp");
+        add("video/3gpp", 4, "ftyp3gp");
+        add("video/quicktime", 4, "ftypqt  ");
+        add("video/avi", 0, 'R', 'I', 'F', 'F', ANY, ANY, ANY, ANY, 'A', 'V', 'I', ' ');
+        add("video/x-matroska", 0, 0x1A, 0x45, 0xDF, 0xA3);
+        add("video/x-flv", 0, "FLV");
+        add("video/mpeg", 0, 0x00, 0x00, 0x01, 0xBA);
+        add("video/mpeg", 0, 0x00, 0x00, 0x01, 0xB3);
+        // audio
+        add("audio/mp4", 4, "ftypM4A ");
+        add("audio/mpeg", 0, "ID3");
+        add("audio/mpeg", 0, 0xFF, 0xFB);
+        add("audio/mpeg", 0, 0xFF, 0xF3);
+        add("audio/mpeg", 0, 0xFF, 0xF2);
+        add("audio/wav", 0, 'R', 'I', 'F', 'F', ANY, ANY, ANY, ANY, 'W', 'A', 'V', 'E');
+        add("audio/ogg", 0, "OggS");
+        add("audio/flac", 0, "fLaC");
+        add("audio/amr", 0, "#!AMR");
+        add("audio/midi", 0, "MThd");
+        // archives
+        add("application/zip", 0, 'P', 'K', 0x03, 0x04);
+        add("application/zip", 0, 'P', 'K', 0x05, 0x06);
+        add("application/x-gzip", 0, 0x1F, 0x8B);
+        add("application/x-rar-compressed", 0, 'R', 'a', 'r', '!', 0x1A, 0x07);
+        add("application/x-7z-compressed", 0, '7', 'z', 0xBC, 0xAF, 0x27, 0x1C);
+        add("application/x-tar", 257, "ustar");
+        // documents
+        add("application/pdf", 0, "%PDF-");
+        add("text/richtext", 0, "{\\rtf");
+        add("application/x-ole-storage", 0, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1);
+
+        refine("application/zip", "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub", "apk", "jar");
+        refine("application/x-ole-storage", "doc", "dot", "xls", "xlt", "ppt", "pps", "msg");
+        refine("video/x-matroska", "webm", "mka");
+        refine("video/mp4", "m4v", "m4a", "mov", "3gp", "3g2");
+        refine("audio/mpeg", "mp2", "mpga");
+    }
+
+    private static final class Node {
+        byte[] keys = new byte[0];
+        Node[] children = new Node[0];
+        Node any;
+        String mimeType;
+        boolean strong;
+
+        Node child(int value) {
+            if (value == ANY) {
+                if (any == null) {
+                    any = new Node();
+                }
+                return any;
+            }
+            byte key = (byte) value;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = key;
+            return children[children.length - 1] = new Node();
+        }
+    }
+
+    private MimeSniffer() {
+    }
+
+    /**
+     * Adds a signature that also occurs in files of other types, so that it never overrides a
+     * registered extension.
+     */
+    private static void addWeak(String mimeType, int offset, String signature) {
+        add(mimeType, offset, signature).strong = false;
+    }
+
+    private static void addWeak(String mimeType, int offset, int... signature) {
+        add(mimeType, offset, signature).strong = false;
+    }
+
+    private static Node add(String mimeType, int offset, String signature) {
+        byte[] bytes = signature.getBytes(ASCII);
+        int[] values = new int[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            values[i] = bytes[i] & 0xFF;
+        }
+        return add(mimeType, offset, values);
+    }
+
+    private static Node add(String mimeType, int offset, int... signature) {
+        Node node = ROOT;
+        for (int i = 0; i < offset; i++) {
+            node = node.child(ANY);
+        }
+        for (int value : signature) {
+            node = node.child(value);
+        }
+        node.mimeType = mimeType;
+        node.strong = true;
+        return node;
+    }
+
+    private static void refine(String containerType, String... extensions) {
+        REFINABLE.put(containerType, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(extensions))));
+    }
+
+    /**
+     * Matches the first {@code length} bytes of {@code header} against the known signatures.
+     *
+     * @return The MIME type of the longest matching signature, or null if none matches.
+     */
+    @Nullable
+    public static String sniff(@NonNull byte[] header, int length) {
+        return match(header, length).mimeType;
+    }
+
+    private static Match match(byte[] header, int length) {
+        Match match = new Match();
+        walk(ROOT, header, 0, Math.min(length, header.length), match);
+        return match;
+    }
+
+    /**
+     * Detects the MIME type of a file from its content, falling back to its extension.
+     */
+    @NonNull
+    public static String detect(@NonNull File file) {
+        Match sniffed = null;
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            sniffed = sniff(inputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            close(inputStream);
+        }
+        return resolve(sniffed, file.getName());
+    }
+
+    /**
+     * Detects the MIME type of a Uri from its content, falling back to the extension of its display
+     * name and then to the type reported by its provider.
+     */
+    @NonNull
+    public static String detect(@NonNull Context context, @NonNull Uri uri) {
+        Match sniffed = null;
+        InputStream inputStream = null;
+        try {
+            inputStream = context.getContentResolver().openInputStream(uri);
+            if (inputStream != null) {
+                sniffed = sniff(inputStream);
+            }
+        } catch (IOException | SecurityException e) {
+            e.printStackTrace();
+        } finally {
+            close(inputStream);
+        }
+        if (sniffed != null && sniffed.mimeType != null && sniffed.strong
+                && !REFINABLE.containsKey(sniffed.mimeType)) {
+            return sniffed.mimeType;
+        }
+        // without a display name there is no extension to fall back to
+        String fileName = UriImporter.getDisplayName(context, uri);
+        String type = resolve(sniffed, fileName != null ? fileName : "");
+        if (MimeTypeRegistry.DEFAULT_MIME_TYPE.equals(type)) {
+            String providerType = context.getContentResolver().getType(uri);
+            if (providerType != null) {
+                return providerType;
+            }
+        }
+        return type;
+    }
+
+    private static Match sniff(InputStream inputStream) throws IOException {
+        byte[] buffer = BufferPool.acquire(SNIFF_LENGTH);
+        try {
+            int length = 0;
+            int read;
+            while (length < SNIFF_LENGTH
+                    && (read = inputStream.read(buffer, length, SNIFF_LENGTH - length)) != -1) {
+                length += read;
+            }
+            return match(buffer, length);
+        } finally {
+            BufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Combines the sniffed type with the type registered for the extension of {@code fileName}.
+     */
+    private static String resolve(@Nullable Match match, String fileName) {
+        String byExtension = MimeTypeRegistry.getInstance().getMimeType(fileName);
+        String sniffed = match != null ? match.mimeType : null;
+        if (sniffed == null) {
+            return byExtension != null ? byExtension : MimeTypeRegistry.DEFAULT_MIME_TYPE;
+        }
+        if (!match.strong && byExtension != null && !MimeTypeRegistry.DEFAULT_MIME_TYPE.equals(byExtension)) {
+            // a weak signature is no stronger evidence than a registered extension
+            return byExtension;
+        }
+        Set<String> extensions = REFINABLE.get(sniffed);
+        if (byExtension != null && extensions != null) {
+            int dot = fileName.lastIndexOf('.');
+            if (extensions.contains(fileName.substring(dot + 1).toLowerCase())) {
+                return byExtension;
+            }
+        }
+        return sniffed;
+    }
+
+    private static final class Match {
+        String mimeType;
+        boolean strong;
+        int depth = -1;
+    }
+
+    private static void walk(Node node, byte[] data, int depth, int length, Match match) {
+        if (node.mimeType != null && depth > match.depth) {
+            match.mimeType = node.mimeType;
+            match.strong = node.strong;
+            match.depth = depth;
+        }
+        if (depth >= length) {
+            return;
+        }
+        byte value = data[depth];
+        byte[] keys = node.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == value) {
+                walk(node.children[i], data, depth + 1, length, match);
+                break;
+            }
+        }
+        if (node.any != null) {
+            walk(node.any, data, depth + 1, length, match);
+        }
+    }
+
+    private static void close(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.jqueue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable extension to MIME type table, loaded once from the {@code mime.types} resource next
+ * to this class.
+ * <p>
+ * Extensions are kept in an open-addressing hash table that is probed straight from the
+ * characters of the file name, so a lookup is case-insensitive, constant time and does not
+ * allocate.
+ */
+public final class MimeTypeRegistry {
+    public static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+    private static final String TABLE = "mime.types";
+
+    // extension (lower case, without the dot) -> MIME type, linear probing
+    private final String[] extensions;
+    private final String[] mimeTypes;
+    private final int mask;
+    private final Map<String, List<String>> extensionsByMimeType;
+
+    private static final class Holder {
+        static final MimeTypeRegistry INSTANCE = load();
+    }
+
+    private MimeTypeRegistry(Map<String, List<String>> table, int extensionCount) {
+        int capacity = Integer.highestOneBit(Math.max(extensionCount, 1) * 2 - 1) << 1;
+        extensions = new String[capacity];
+        mimeTypes = new String[capacity];
+        mask = capacity - 1;
+        extensionsByMimeType = new HashMap<>(table.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<String>> entry : table.entrySet()) {
+            String mimeType = entry.getKey();
+            for (String extension : entry.getValue()) {
+                int slot = hash(extension, 0, extension.length()) & mask;
+                while (extensions[slot] != null && !extensions[slot].equals(extension)) {
+                    slot = (slot + 1) & mask;
+                }
+                extensions[slot] = extension;
+                mimeTypes[slot] = mimeType;
+            }
+            extensionsByMimeType.put(mimeType, Collections.unmodifiableList(entry.getValue()));
+        }
+    }
+
+    public static MimeTypeRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The MIME type for the extension of {@code fileName}, or null if the name has no
+     * extension or the extension is unknown.
+     */
+    @Nullable
+    public String getMimeType(@NonNull CharSequence fileName) {
+        int length = fileName.length();
+        for (int i = length - 1; i >= 0; i--) {
+            char c = fileName.charAt(i);
+            if (c == '.') {
+                return lookup(fileName, i + 1, length);
+            } else if (c == '/') {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param extension The extension, with or without the leading dot.
+     * @return The MIME type, or null if the extension is unknown.
+     */
+    @Nullable
+    public String getMimeTypeFromExtension(@NonNull CharSequence extension) {
+        int start = extension.length() > 0 && extension.charAt(0) == '.' ? 1 : 0;
+        return lookup(extension, start, extension.length());
+    }
+
+    /**
+     * @return Whether the registry has an entry for {@code extension} (without the dot).
+     */
+    public boolean hasExtension(@NonNull CharSequence extension) {
+        return lookup(extension, 0, extension.length()) != null;
+    }
+
+    /**
+     * @return The extensions registered for {@code mimeType} (without the dot), preferred one
+     * first; empty if the type is unknown.
+     */
+    @NonNull
+    public List<String> getExtensions(@NonNull String mimeType) {
+        List<String> list = extensionsByMimeType.get(mimeType);
+        return list != null ? list : Collections.<String>emptyList();
+    }
+
+    /**
+     * @return The preferred extension for {@code mimeType} (without the dot), or null if the type
+     * is unknown.
+     */
+    @Nullable
+    public String getExtension(@NonNull String mimeType) {
+        List<String> list = extensionsByMimeType.get(mimeType);
+        return list != null ? list.get(0) : null;
+    }
+
+    private String lookup(CharSequence chars, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        int slot = hash(chars, start, end) & mask;
+        String candidate;
+        while ((candidate = extensions[slot]) != null) {
+            if (equalsIgnoreCase(candidate, chars, start, end)) {
+                return mimeTypes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(CharSequence chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + toLowerCase(chars.charAt(i));
+        }
+        // spread the high bits, the table is indexed by the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String lowerCase, CharSequence chars, int start, int end) {
+        if (lowerCase.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (lowerCase.charAt(i - start) != toLowerCase(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c < 128 ? c : Character.toLowerCase(c);
+    }
+
+    private static MimeTypeRegistry load() {
+        Map<String, List<String>> table = new HashMap<>();
+        int extensionCount = 0;
+        InputStream inputStream = MimeTypeRegistry.class.getResourceAsStream(TABLE);
+        if (inputStream == null) {
+            throw new IllegalStateException("Missing MIME type table " + TABLE);
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length < 2) {
+                    continue;
+                }
+                List<String> list = table.get(fields[0]);
+                if (list == null) {
+                    list = new ArrayList<>(fields.length - 1);
+                    table.put(fields[0], list);
+                }
+                List<String> extensions = Arrays.asList(fields).subList(1, fields.length);
+                list.addAll(extensions);
+                extensionCount += extensions.size();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read MIME type table " + TABLE, e);
+        } finally {
+            try {
+                if (reader != null) {
+                    reader.close();
+                } else {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return new MimeTypeRegistry(table, extensionCount);
+    }
+}
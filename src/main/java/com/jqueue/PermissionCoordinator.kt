@@ -0,0 +1,150 @@
+package com.jqueue
+
+import android.app.Activity
+import android.view.Choreographer
+import androidx.core.app.ActivityCompat
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withContext
+import kotlin.coroutines.resume
+
+/**
+ * 权限请求结果
+ */
+class PermissionResult internal constructor(val granted: List<String>, val denied: List<String>) {
+    val allGranted get() = denied.isEmpty()
+
+    override fun toString() = "PermissionResult[granted=$granted, denied=$denied]"
+}
+
+/**
+ * 单个 Activity 的权限请求协调器，所有方法需在主线程调用
+ *
+ * - 同一帧内发起的多个请求合并为一次系统弹窗，已在弹窗中的权限不会重复请求；
+ * - 弹窗显示期间的新请求排队，等上一次结果返回后再发起下一批；
+ * - 每个请求在它的全部权限都有结果后回调一次，互不覆盖；
+ * - 授权状态保存在 [PermissionState] 中，检查时不必每次 checkSelfPermission。
+ *
+ * Activity 需要把 onRequestPermissionsResult 转发给 [onRequestPermissionsResult]。
+ * Activity 在弹窗期间重建时，旧实例上的回调不会再触发，结果只会更新新实例的缓存。
+ */
+class PermissionCoordinator(private val activity: Activity) {
+
+    private class Request(val permissions: Array<out String>, val callback: (PermissionResult) -> Unit)
+
+    private val waiting = ArrayList<Request>()
+    private val queued = LinkedHashSet<String>()
+    private var inFlight: Set<String> = emptySet()
+    private var flushScheduled = false
+
+    private val flushCallback = Choreographer.FrameCallback { flush() }
+
+    fun isGranted(permission: String): Boolean = PermissionState.isGranted(activity, permission)
+
+    /**
+     * 全部已授权时返回 true；不创建中间集合
+     */
+    fun isGranted(permissions: Array<out String>): Boolean = PermissionState.isGranted(activity, permissions)
+
+    /**
+     * 请求 [permissions]，全部已授权时立即回调
+     */
+    fun request(permissions: Array<out String>, callback: (PermissionResult) -> Unit) {
+        if (isGranted(permissions)) {
+            callback(PermissionResult(permissions.toList(), emptyList()))
+            return
+        }
+        waiting.add(Request(permissions, callback))
+        for (permission in permissions) {
+            if (!isGranted(permission) && permission !in inFlight) {
+                queued.add(permission)
+            }
+        }
+        scheduleFlush()
+    }
+
+    /**
+     * [request] 的挂起版本
+     */
+    suspend fun await(vararg permissions: String): PermissionResult = withContext(Dispatchers.Main.immediate) {
+        suspendCancellableCoroutine<PermissionResult> { continuation ->
+            request(permissions) { result ->
+                if (continuation.isActive) {
+                    continuation.resume(result)
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 结果是否属于本协调器
+     */
+    fun onRequestPermissionsResult(requestCode: Int, permissions: Array<out String>, grantResults: IntArray): Boolean {
+        if (requestCode != REQUEST_CODE) {
+            return false
+        }
+        PermissionState.update(permissions, grantResults)
+        // 结果为空表示请求被系统中断，未返回结果的权限重新查询
+        for (permission in inFlight) {
+            if (permission !in permissions) {
+                PermissionState.check(activity, permission)
+            }
+        }
+        inFlight = emptySet()
+        resolve()
+        scheduleFlush()
+        return true
+    }
+
+    private fun scheduleFlush() {
+        if (flushScheduled || inFlight.isNotEmpty() || queued.isEmpty()) {
+            return
+        }
+        flushScheduled = true
+        // 推迟到下一帧，合并这一帧内的所有请求
+        Choreographer.getInstance().postFrameCallback(flushCallback)
+    }
+
+    private fun flush() {
+        flushScheduled = false
+        if (inFlight.isNotEmpty()) {
+            return
+        }
+        // 排队期间可能已经在别处授权
+        queued.retainAll { !PermissionState.check(activity, it) }
+        if (queued.isEmpty()) {
+            resolve()
+            return
+        }
+        inFlight = LinkedHashSet(queued)
+        queued.clear()
+        ActivityCompat.requestPermissions(activity, inFlight.toTypedArray(), REQUEST_CODE)
+    }
+
+    /**
+     * 回调所有权限都已有结果的请求
+     */
+    private fun resolve() {
+        val done = ArrayList<Request>()
+        val iterator = waiting.iterator()
+        while (iterator.hasNext()) {
+            val request = iterator.next()
+            if (request.permissions.none { it in inFlight || it in queued }) {
+                iterator.remove()
+                done.add(request)
+            }
+        }
+        // 回调中可能发起新的请求，先从 waiting 移除再回调
+        for (request in done) {
+            val (granted, denied) = request.permissions.partition { isGranted(it) }
+            request.callback(PermissionResult(granted, denied))
+        }
+    }
+
+    companion object {
+        /**
+         * FragmentActivity 只接受低 16 位的 requestCode
+         */
+        const val REQUEST_CODE = 0x5045
+    }
+}
@@ -0,0 +1,63 @@
+package com.jqueue
+
+import android.content.Context
+import android.content.pm.PackageManager
+import androidx.core.content.ContextCompat
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 进程级的权限授权状态缓存，可在任意线程读取
+ *
+ * 每个权限只在第一次检查时调用 checkSelfPermission，之后的检查只是一次 map 读取，不分配对象，
+ * 适合在滑动、相机帧回调等高频路径中调用。缓存由 [update]（请求结果）和 [refresh]（onResume，
+ * 用户可能在设置页修改了授权）更新。
+ */
+object PermissionState {
+    private val states = ConcurrentHashMap<String, Boolean>()
+
+    fun isGranted(context: Context, permission: String): Boolean =
+        states[permission] ?: check(context, permission)
+
+    /**
+     * 全部已授权时返回 true
+     */
+    fun isGranted(context: Context, permissions: Array<out String>): Boolean {
+        for (i in permissions.indices) {
+            if (!isGranted(context, permissions[i])) {
+                return false
+            }
+        }
+        return true
+    }
+
+    /**
+     * 跳过缓存重新查询 [permission] 并更新缓存
+     */
+    fun check(context: Context, permission: String): Boolean {
+        val granted = ContextCompat.checkSelfPermission(context, permission) == PackageManager.PERMISSION_GRANTED
+        states[permission] = granted
+        return granted
+    }
+
+    /**
+     * 用 onRequestPermissionsResult 的结果更新缓存
+     */
+    fun update(permissions: Array<out String>, grantResults: IntArray) {
+        for (i in permissions.indices) {
+            states[permissions[i]] = i < grantResults.size && grantResults[i] == PackageManager.PERMISSION_GRANTED
+        }
+    }
+
+    /**
+     * 重新查询已缓存的权限，在 onResume 中调用
+     */
+    fun refresh(context: Context) {
+        for (permission in states.keys) {
+            check(context, permission)
+        }
+    }
+
+    fun invalidate() {
+        states.clear()
+    }
+}
@@ -1,21 +1,20 @@
 package com.jqueue
 
 import androidx.lifecycle.LifecycleOwner
-import androidx.lifecycle.lifecycleScope
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.SupervisorJob
-import kotlinx.coroutines.launch
-import kotlinx.coroutines.withContext
+import kotlinx.coroutines.Job
 
 
-fun LifecycleOwner.lifecycleIOScope(lifecycleOwner: LifecycleOwner, run: suspend () -> Unit) {
-    lifecycleOwner.lifecycleScope.launch {
-        withContext(Dispatchers.IO + SupervisorJob()) {
-            run()
-        }
-    }
-}
+/**
+ * 在 [lifecycleOwner] 的 IO 执行器中运行 [run]，页面销毁时自动取消
+ *
+ * @see LifecycleIOExecutor
+ */
+fun LifecycleOwner.lifecycleIOScope(
+    lifecycleOwner: LifecycleOwner,
+    priority: IOPriority = IOPriority.USER_VISIBLE,
+    run: suspend () -> Unit
+): Job = LifecycleIOExecutor.of(lifecycleOwner).launch(priority, run)
 
 fun main() {
     println()
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.jqueue;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent calls for the same key.
+ * <p>
+ * The first caller for a key runs the computation on its own thread; callers that arrive while it
+ * is in flight wait for it and receive the same result or exception instead of starting their own.
+ * Nothing is cached: once the computation finished, the next call for the key runs it again.
+ * <p>
+ * A computation that calls back into {@link #execute} for its own key runs the nested callable
+ * directly instead of waiting for itself.
+ *
+ * @param <K> Key type, must implement equals/hashCode.
+ * @param <V> Result type.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, FutureTask<V>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    /**
+     * Keys whose computation is running on the current thread.
+     */
+    private final ThreadLocal<HashSet<K>> running = new ThreadLocal<HashSet<K>>() {
+        @Override
+        protected HashSet<K> initialValue() {
+            return new HashSet<>();
+        }
+    };
+
+    /**
+     * Runs {@code callable} for {@code key}, or waits for the call already running for it.
+     *
+     * @throws IOException if the computation threw one, or a checked exception that is wrapped.
+     *                     Runtime exceptions and errors are rethrown as they are.
+     */
+    public V execute(@NonNull K key, @NonNull Callable<V> callable) throws IOException {
+        HashSet<K> active = running.get();
+        if (active.contains(key)) {
+            executions.incrementAndGet();
+            return call(callable);
+        }
+        FutureTask<V> task = new FutureTask<>(callable);
+        FutureTask<V> inFlight = calls.putIfAbsent(key, task);
+        if (inFlight == null) {
+            executions.incrementAndGet();
+            active.add(key);
+            try {
+                task.run();
+            } finally {
+                active.remove(key);
+                calls.remove(key, task);
+            }
+            inFlight = task;
+        } else {
+            shared.incrementAndGet();
+        }
+        return await(inFlight);
+    }
+
+    /**
+     * @return The number of computations that were actually run.
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * @return The number of calls that were served by a computation started by another caller.
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+
+    private static <V> V call(Callable<V> callable) throws IOException {
+        try {
+            return callable.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static <V> V await(FutureTask<V> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.jqueue
+
+import android.app.Activity
+import android.os.SystemClock
+import android.view.View
+import android.view.ViewTreeObserver
+import androidx.core.os.TraceCompat
+import java.io.PrintWriter
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Activity 启动耗时统计，默认关闭，在 Application.onCreate 中设置 [enabled] 开启
+ *
+ * 开启后 [trace] 把各阶段包在 systrace/Perfetto 的 Trace section 中；每个 Activity 从 onCreate
+ * 到第一帧绘制的耗时写入固定大小的无锁环形缓冲区，最新的 [CAPACITY] 条可以通过 [dump] 导出，
+ * 也会出现在 `adb shell dumpsys activity <activity>` 的输出中。
+ */
+object StartupProfiler {
+    const val CAPACITY = 64
+
+    @JvmStatic
+    @Volatile
+    var enabled = false
+
+    class Record internal constructor(
+        val sequence: Long,
+        val activity: String,
+        /**
+         * 开启统计后进程内第一个创建的 Activity，即冷启动
+         */
+        val coldStart: Boolean,
+        /**
+         * 从 onCreate 开始到 onPostCreate，包含子类 onCreate 中的 setContentView 和布局加载
+         */
+        val onCreateMillis: Long,
+        val firstFrameMillis: Long,
+        /**
+         * 记录时的 [System.currentTimeMillis]
+         */
+        val timestamp: Long
+    ) {
+        override fun toString() = "$activity ${if (coldStart) "cold" else "warm"} " +
+                "onCreate=${onCreateMillis}ms firstFrame=${firstFrameMillis}ms"
+    }
+
+    private val records = AtomicReferenceArray<Record>(CAPACITY)
+    private val nextSequence = AtomicLong()
+    private val firstActivityStarted = AtomicBoolean()
+
+    /**
+     * 在名为 [name] 的 Trace section 中执行 [block]，未开启时直接执行
+     */
+    inline fun <T> trace(name: String, block: () -> T): T {
+        if (!enabled) {
+            return block()
+        }
+        TraceCompat.beginSection(name)
+        try {
+            return block()
+        } finally {
+            TraceCompat.endSection()
+        }
+    }
+
+    /**
+     * 在 onCreate 开始时调用，返回的 [Startup] 在 onPostCreate 中调用 [Startup.onCreateFinished]，
+     * 在 onDestroy 中调用 [Startup.cancel]；未开启时为 null
+     */
+    fun onCreateStarted(activity: Activity): Startup? =
+        if (enabled) Startup(activity.javaClass.simpleName, firstActivityStarted.compareAndSet(false, true)) else null
+
+    class Startup internal constructor(private val activity: String, private val coldStart: Boolean) {
+        private val start = SystemClock.uptimeMillis()
+        private var decorView: View? = null
+        private var listener: ViewTreeObserver.OnDrawListener? = null
+
+        /**
+         * 记录 onCreate 耗时，并等待 [decorView] 的第一帧绘制
+         */
+        fun onCreateFinished(decorView: View) {
+            val onCreateEnd = SystemClock.uptimeMillis()
+            val listener = object : ViewTreeObserver.OnDrawListener {
+                private var drawn = false
+
+                override fun onDraw() {
+                    if (drawn) {
+                        return
+                    }
+                    drawn = true
+                    record(activity, coldStart, onCreateEnd - start, SystemClock.uptimeMillis() - start)
+                    // 绘制分发过程中不能移除监听
+                    decorView.post { cancel() }
+                }
+            }
+            this.decorView = decorView
+            this.listener = listener
+            decorView.viewTreeObserver.addOnDrawListener(listener)
+        }
+
+        /**
+         * 移除第一帧的监听，Activity 在第一帧之前结束时不会留下记录
+         */
+        fun cancel() {
+            val decorView = decorView ?: return
+            val listener = listener ?: return
+            val observer = decorView.viewTreeObserver
+            if (observer.isAlive) {
+                observer.removeOnDrawListener(listener)
+            }
+            this.decorView = null
+            this.listener = null
+        }
+    }
+
+    /**
+     * @return 最新的记录，从旧到新
+     */
+    fun dump(): List<Record> {
+        val result = ArrayList<Record>(CAPACITY)
+        for (i in 0 until CAPACITY) {
+            records.get(i)?.let { result.add(it) }
+        }
+        result.sortBy { it.sequence }
+        return result
+    }
+
+    fun dump(prefix: String, writer: PrintWriter) {
+        writer.print(prefix)
+        writer.println("StartupProfiler (enabled=$enabled):")
+        for (record in dump()) {
+            writer.print(prefix)
+            writer.print("  ")
+            writer.println(record)
+        }
+    }
+
+    fun clear() {
+        for (i in 0 until CAPACITY) {
+            records.set(i, null)
+        }
+    }
+
+    private fun record(activity: String, coldStart: Boolean, onCreateMillis: Long, firstFrameMillis: Long) {
+        val sequence = nextSequence.getAndIncrement()
+        records.set(
+            (sequence % CAPACITY).toInt(),
+            Record(sequence, activity, coldStart, onCreateMillis, firstFrameMillis, System.currentTimeMillis())
+        )
+    }
+}
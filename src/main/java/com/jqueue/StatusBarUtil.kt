@@ -1,52 +1,17 @@
 package com.jqueue
 
-import android.annotation.TargetApi
 import android.app.Activity
 import android.content.Context
-import android.content.res.Resources
-
-import java.lang.reflect.Method
+import android.os.Build
 
 object StatusBarUtil {
 
-    fun getStatusBarHeight(context: Context): Int {
-        var height = 0
-        val resourceId = context.applicationContext.resources.getIdentifier(
-            "status_bar_height",
-            "dimen",
-            "android"
-        )
-        if (resourceId > 0) {
-            height = context.applicationContext.resources.getDimensionPixelSize(resourceId)
-        }
-        return height
-    }
+    fun getStatusBarHeight(context: Context): Int = SystemUiDimensions.get(context).statusBarHeight
 
     /**
      * 获取是否存在NavigationBar
      */
-    fun checkDeviceHasNavigationBar(context: Context): Boolean {
-        var hasNavigationBar = false
-        try {
-            val rs = context.resources
-            val id = rs.getIdentifier("config_showNavigationBar", "bool", "android")
-            if (id > 0) {
-                hasNavigationBar = rs.getBoolean(id)
-            }
-            val systemPropertiesClass = Class.forName("android.os.SystemProperties")
-            val m = systemPropertiesClass.getMethod("get", String::class.java)
-            val navBarOverride = m.invoke(systemPropertiesClass, "qemu.hw.mainkeys") as String
-            if ("1" == navBarOverride) {
-                hasNavigationBar = false
-            } else if ("0" == navBarOverride) {
-                hasNavigationBar = true
-            }
-        } catch (e: Exception) {
-
-        }
-
-        return hasNavigationBar
-    }
+    fun checkDeviceHasNavigationBar(context: Context): Boolean = SystemUiDimensions.get(context).hasNavigationBar
 
     /**
      * 获取底部导航栏的高度
@@ -54,25 +19,19 @@ object StatusBarUtil {
      * @param activity
      * @return
      */
-    fun getNavigationBarHeight(activity: Context): Int {
-        val resources = activity.resources
-        val resourceId = resources.getIdentifier(
-            "navigation_bar_height",
-            "dimen", "android"
-        )
-        //获取NavigationBar的高度
-        return resources.getDimensionPixelSize(resourceId)
-    }
+    fun getNavigationBarHeight(activity: Context): Int = SystemUiDimensions.get(activity).navigationBarHeight
 
     /**
      * 获取显示屏缺口的高度
-     * 显示屏缺口高度与状态栏同高
+     * API 28 以上为刘海的顶部安全区域，没有刘海或 View 尚未 attach 时为 0
      * @param activity
      * @return
      */
-    @TargetApi(28)
     fun getDisplayCutoutHeight(activity: Activity): Int {
-        return getStatusBarHeight(activity) + 10
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            return 0
+        }
+        return activity.window.decorView.rootWindowInsets?.displayCutout?.safeInsetTop ?: 0
     }
 
 }
@@ -0,0 +1,112 @@
+package com.jqueue
+
+import android.annotation.SuppressLint
+import android.content.ComponentCallbacks
+import android.content.Context
+import android.content.res.Configuration
+import android.content.res.Resources
+import java.lang.reflect.Method
+
+/**
+ * 系统栏尺寸的进程级缓存
+ *
+ * 资源 id 和 qemu.hw.mainkeys 的值只读取一次；尺寸按 [Configuration] 缓存，
+ * 配置变化（旋转、分屏、字体/密度变化）时由 [ComponentCallbacks] 清除，
+ * 也可以在窗口 insets 变化时调用 [invalidate]。
+ */
+object SystemUiDimensions {
+
+    class Snapshot internal constructor(
+        val statusBarHeight: Int,
+        val navigationBarHeight: Int,
+        val hasNavigationBar: Boolean
+    ) {
+        override fun toString() =
+            "Snapshot[statusBar=$statusBarHeight, navigationBar=$navigationBarHeight, hasNavigationBar=$hasNavigationBar]"
+    }
+
+    private const val UNRESOLVED = -1
+
+    // 只在 synchronized(this) 中读写
+    private var statusBarHeightId = UNRESOLVED
+    private var navigationBarHeightId = UNRESOLVED
+    private var showNavigationBarId = UNRESOLVED
+
+    /**
+     * qemu.hw.mainkeys 在进程运行期间不会变化，只读取一次
+     */
+    private val navigationBarOverride: String? by lazy { readSystemProperty("qemu.hw.mainkeys") }
+
+    @Volatile
+    private var snapshot: Snapshot? = null
+    @Volatile
+    private var configuration: Configuration? = null
+    private var callbacksRegistered = false
+
+    private val callbacks = object : ComponentCallbacks {
+        override fun onConfigurationChanged(newConfig: Configuration) {
+            invalidate()
+        }
+
+        override fun onLowMemory() {
+        }
+    }
+
+    /**
+     * @return 当前配置下的系统栏尺寸，配置未变时直接返回缓存
+     */
+    fun get(context: Context): Snapshot {
+        val resources = context.applicationContext.resources
+        val current = resources.configuration
+        snapshot?.let { cached ->
+            if (current == configuration) {
+                return cached
+            }
+        }
+        return synchronized(this) {
+            if (!callbacksRegistered) {
+                context.applicationContext.registerComponentCallbacks(callbacks)
+                callbacksRegistered = true
+            }
+            resolveIds(resources)
+            Snapshot(
+                dimension(resources, statusBarHeightId),
+                dimension(resources, navigationBarHeightId),
+                hasNavigationBar(resources)
+            ).also {
+                configuration = Configuration(current)
+                snapshot = it
+            }
+        }
+    }
+
+    fun invalidate() {
+        snapshot = null
+    }
+
+    private fun resolveIds(resources: Resources) {
+        if (statusBarHeightId != UNRESOLVED) {
+            return
+        }
+        statusBarHeightId = resources.getIdentifier("status_bar_height", "dimen", "android")
+        navigationBarHeightId = resources.getIdentifier("navigation_bar_height", "dimen", "android")
+        showNavigationBarId = resources.getIdentifier("config_showNavigationBar", "bool", "android")
+    }
+
+    private fun dimension(resources: Resources, id: Int) =
+        if (id > 0) resources.getDimensionPixelSize(id) else 0
+
+    private fun hasNavigationBar(resources: Resources): Boolean = when (navigationBarOverride) {
+        "1" -> false
+        "0" -> true
+        else -> showNavigationBarId > 0 && resources.getBoolean(showNavigationBarId)
+    }
+
+    @SuppressLint("PrivateApi")
+    private fun readSystemProperty(key: String): String? = try {
+        val get: Method = Class.forName("android.os.SystemProperties").getMethod("get", String::class.java)
+        get.invoke(null, key) as String?
+    } catch (e: Exception) {
+        null
+    }
+}
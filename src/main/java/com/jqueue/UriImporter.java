@@ -0,0 +1,398 @@
+package com.jqueue;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.ParcelFileDescriptor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the content of a Uri into a local file.
+ * <p>
+ * Data is first written to a hidden partial file next to the destination and renamed over the
+ * destination once complete, so readers never see a half written file. The partial file is named
+ * after the Uri, so an import that was cancelled or killed together with the process picks up
+ * where it stopped the next time the same Uri is imported into the same directory.
+ * <p>
+ * The source's size and last-modified time are stored next to the partial file. An import only
+ * resumes when both still match, so a changed source is never joined to old content. Sources that
+ * report neither always start over. Partial files that have not been written for a day are
+ * deleted the first time the process imports into their directory.
+ */
+public final class UriImporter {
+    private static final int BUFFER_SIZE = 256 * 1024;
+    // HIDDEN_PREFIX, so FileUtils.sFileFilter skips partial files
+    private static final String PARTIAL_PREFIX = FileUtils.HIDDEN_PREFIX + "import-";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String SOURCE_SUFFIX = ".source";
+    /**
+     * Age after which a partial file is considered abandoned.
+     */
+    private static final long STALE_PARTIAL_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Directories whose stale partial files were already deleted by this process.
+     */
+    private static final Set<String> sSweptDirectories =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+
+    /**
+     * Receives import progress on the importing thread. {@code bytesCopied} includes resumed
+     * bytes; {@code totalBytes} is -1 if the provider does not report the size.
+     */
+    public interface ProgressListener extends FileTransfer.ProgressListener {
+    }
+
+    private UriImporter() {
+    }
+
+    /**
+     * Imports {@code uri} into a new file in {@link FileUtils#getDocumentCacheDir(Context)}, named
+     * after the document's display name.
+     *
+     * @return The imported file, or null if no file could be created for it.
+     */
+    @Nullable
+    public static File importToCache(@NonNull Context context, @NonNull Uri uri,
+                                     @Nullable ProgressListener listener,
+                                     @Nullable CancellationSignal signal) throws IOException {
+        File file = FileUtils.generateFileName(getDisplayName(context, uri),
+                FileUtils.getDocumentCacheDir(context));
+        if (file == null) {
+            return null;
+        }
+        importUri(context, uri, file, listener, signal);
+        DocumentCache.get(context).recordWrite(file);
+        return file;
+    }
+
+    /**
+     * @return The provider's display name for {@code uri}, or its last path segment. Unlike
+     * {@link FileUtils#getFileName(Context, Uri)} this never resolves the path, which may itself
+     * import the Uri.
+     */
+    @Nullable
+    static String getDisplayName(@NonNull Context context, @NonNull Uri uri) {
+        String name = FileUtils.getMetadata(context, uri).displayName;
+        return name != null ? name : uri.getLastPathSegment();
+    }
+
+    /**
+     * Copies the content of {@code uri} to {@code destination}, resuming a previous partial import
+     * of the same Uri if there is one.
+     *
+     * @return The size of the imported file.
+     * @throws android.os.OperationCanceledException if {@code signal} was cancelled. The partial
+     *                                               file is kept so the import can be resumed.
+     */
+    public static long importUri(@NonNull Context context, @NonNull Uri uri, @NonNull File destination,
+                                 @Nullable ProgressListener listener,
+                                 @Nullable CancellationSignal signal) throws IOException {
+        return importUri(context, uri, destination, listener, signal, null);
+    }
+
+    /**
+     * Same as {@link #importUri(Context, Uri, File, ProgressListener, CancellationSignal)}, and
+     * feeds every byte of the imported file into {@code digest} while streaming it, including the
+     * bytes of a resumed partial import.
+     */
+    public static long importUri(@NonNull Context context, @NonNull Uri uri, @NonNull File destination,
+                                 @Nullable ProgressListener listener,
+                                 @Nullable CancellationSignal signal,
+                                 @Nullable MessageDigest digest) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        File directory = destination.getParentFile();
+        deleteStalePartials(directory);
+        File partial = getPartialFile(directory, uri);
+        File sourceFile = new File(directory, partial.getName() + SOURCE_SUFFIX);
+
+        ParcelFileDescriptor descriptor = null;
+        InputStream inputStream = null;
+        FileOutputStream outputStream = null;
+        try {
+            long totalBytes = -1;
+            ReadableByteChannel source;
+            FileChannel seekableSource = null;
+            try {
+                descriptor = resolver.openFileDescriptor(uri, "r");
+            } catch (FileNotFoundException e) {
+                // stream-only provider, fall through to openInputStream
+            }
+            if (descriptor != null) {
+                totalBytes = descriptor.getStatSize();
+                inputStream = new FileInputStream(descriptor.getFileDescriptor());
+                FileChannel channel = ((FileInputStream) inputStream).getChannel();
+                if (totalBytes >= 0) {
+                    seekableSource = channel;
+                }
+                source = channel;
+            } else {
+                inputStream = resolver.openInputStream(uri);
+                if (inputStream == null) {
+                    throw new FileNotFoundException("Unable to open " + uri);
+                }
+                source = Channels.newChannel(inputStream);
+            }
+
+            long offset = partial.length();
+            String fingerprint;
+            if (offset > 0) {
+                // the cached date may predate the change we are looking for
+                FileUtils.getMetadataCache().invalidate(uri);
+                fingerprint = fingerprint(FileUtils.getMetadata(context, uri), totalBytes);
+                if (fingerprint == null || !fingerprint.equals(readSmallFile(sourceFile))
+                        || (totalBytes >= 0 && offset > totalBytes)) {
+                    // the source changed since the partial import, or cannot be compared
+                    offset = 0;
+                }
+            } else {
+                fingerprint = fingerprint(FileUtils.getMetadata(context, uri), totalBytes);
+            }
+            if (offset == 0) {
+                if (fingerprint != null) {
+                    writeSmallFile(sourceFile, fingerprint);
+                } else {
+                    sourceFile.delete();
+                }
+            }
+            ByteBuffer buffer = BUFFER.get();
+            if (offset > 0) {
+                if (seekableSource != null) {
+                    seekableSource.position(offset);
+                } else {
+                    offset = skip(source, buffer, offset, signal);
+                }
+            }
+
+            outputStream = new FileOutputStream(partial, offset > 0);
+            FileChannel target = outputStream.getChannel();
+            if (offset > 0) {
+                target.truncate(offset);
+                target.position(offset);
+                if (digest != null) {
+                    digestPrefix(partial, offset, buffer, digest);
+                }
+            }
+
+            long written = offset;
+            if (listener != null) {
+                listener.onProgress(written, totalBytes);
+            }
+            buffer.clear();
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                int read = source.read(buffer);
+                if (read == -1) {
+                    break;
+                }
+                buffer.flip();
+                if (digest != null) {
+                    digest.update(buffer);
+                    buffer.rewind();
+                }
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+                written += read;
+                if (listener != null) {
+                    listener.onProgress(written, totalBytes);
+                }
+            }
+            target.force(false);
+            close(outputStream);
+            outputStream = null;
+
+            if (totalBytes >= 0 && written != totalBytes) {
+                throw new IOException("Imported " + written + " of " + totalBytes + " bytes from " + uri);
+            }
+            if (!partial.renameTo(destination)) {
+                throw new IOException("Unable to move " + partial + " to " + destination);
+            }
+            sourceFile.delete();
+            return written;
+        } finally {
+            close(outputStream);
+            close(inputStream);
+            close(descriptor);
+        }
+    }
+
+    /**
+     * @return The partial file that {@link #importUri} uses for {@code uri} in {@code directory}.
+     */
+    public static File getPartialFile(File directory, Uri uri) {
+        return new File(directory, PARTIAL_PREFIX + hash(uri.toString()) + PARTIAL_SUFFIX);
+    }
+
+    /**
+     * @return "size:lastModified" identifying the current version of the source, or null if the
+     * provider reports neither.
+     */
+    @Nullable
+    private static String fingerprint(UriMetadata metadata, long statSize) {
+        long size = statSize >= 0 ? statSize : metadata.size;
+        if (size == UriMetadata.UNKNOWN && metadata.lastModified == UriMetadata.UNKNOWN) {
+            return null;
+        }
+        return size + ":" + metadata.lastModified;
+    }
+
+    /**
+     * Deletes partial files in {@code directory} that were not written for
+     * {@link #STALE_PARTIAL_MS}, together with their source files; once per directory and process.
+     */
+    private static void deleteStalePartials(File directory) {
+        if (directory == null || !sSweptDirectories.add(directory.getAbsolutePath())) {
+            return;
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(PARTIAL_PREFIX) && name.endsWith(PARTIAL_SUFFIX)
+                    && now - file.lastModified() > STALE_PARTIAL_MS) {
+                file.delete();
+                new File(directory, name + SOURCE_SUFFIX).delete();
+            } else if (name.startsWith(PARTIAL_PREFIX) && name.endsWith(SOURCE_SUFFIX)
+                    && !new File(directory, name.substring(0, name.length() - SOURCE_SUFFIX.length())).exists()
+                    && now - file.lastModified() > STALE_PARTIAL_MS) {
+                file.delete();
+            }
+        }
+    }
+
+    @Nullable
+    private static String readSmallFile(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        FileInputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            byte[] bytes = new byte[(int) Math.min(file.length(), 256)];
+            int length = 0;
+            int read;
+            while (length < bytes.length && (read = inputStream.read(bytes, length, bytes.length - length)) != -1) {
+                length += read;
+            }
+            return new String(bytes, 0, length, "UTF-8");
+        } catch (IOException e) {
+            return null;
+        } finally {
+            close(inputStream);
+        }
+    }
+
+    private static void writeSmallFile(File file, String content) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            close(outputStream);
+        }
+    }
+
+    /**
+     * Feeds the first {@code length} bytes of {@code file} into {@code digest}.
+     */
+    private static void digestPrefix(File file, long length, ByteBuffer buffer, MessageDigest digest)
+            throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileChannel channel = inputStream.getChannel();
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                int read = channel.read(buffer);
+                if (read == -1) {
+                    throw new IOException("Partial import " + file + " is shorter than " + length + " bytes");
+                }
+                buffer.flip();
+                digest.update(buffer);
+                remaining -= read;
+            }
+        } finally {
+            buffer.clear();
+            close(inputStream);
+        }
+    }
+
+    /**
+     * Discards {@code count} bytes from a source that cannot seek.
+     *
+     * @return The number of bytes actually skipped.
+     */
+    private static long skip(ReadableByteChannel source, ByteBuffer buffer, long count,
+                             @Nullable CancellationSignal signal) throws IOException {
+        long skipped = 0;
+        while (skipped < count) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - skipped));
+            int read = source.read(buffer);
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        buffer.clear();
+        return skipped;
+    }
+
+    private static String hash(String value) {
+        try {
+            return FileDigest.toHex(MessageDigest.getInstance("MD5").digest(value.getBytes("UTF-8")));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
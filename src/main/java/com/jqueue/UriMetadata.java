@@ -0,0 +1,36 @@
+package com.jqueue;
+
+import androidx.annotation.Nullable;
+
+/**
+ * What a list row typically shows for a Uri, read with a single query by {@link UriMetadataCache}.
+ */
+public final class UriMetadata {
+    public static final long UNKNOWN = -1;
+
+    @Nullable
+    public final String displayName;
+    /**
+     * Size in bytes, or {@link #UNKNOWN}.
+     */
+    public final long size;
+    @Nullable
+    public final String mimeType;
+    /**
+     * Last-modified time in milliseconds since the epoch, or {@link #UNKNOWN}.
+     */
+    public final long lastModified;
+
+    UriMetadata(@Nullable String displayName, long size, @Nullable String mimeType, long lastModified) {
+        this.displayName = displayName;
+        this.size = size;
+        this.mimeType = mimeType;
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "UriMetadata[name=" + displayName + ", size=" + size + ", type=" + mimeType
+                + ", lastModified=" + lastModified + "]";
+    }
+}
@@ -0,0 +1,239 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe LRU cache of {@link UriMetadata}.
+ * <p>
+ * A miss costs one query whose projection only names the columns that are needed and that the
+ * provider is known to support: the DocumentsContract columns for document Uris, the MediaStore
+ * columns for media Uris and the {@link OpenableColumns} elsewhere. An authority that rejects the
+ * richer projection is remembered and queried with the openable columns from then on. The MIME
+ * type of an openable Uri is taken from its display name and only asked from the provider when the
+ * extension is unknown. Concurrent misses for the same Uri share one query.
+ * <p>
+ * Failed queries are not cached, so a provider that is briefly unavailable is asked again on the
+ * next call. Entries are not revalidated; call {@link #invalidate(Uri)} after changing a document.
+ */
+public final class UriMetadataCache {
+    static final String TAG = "UriMetadataCache";
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final String[] DOCUMENT_PROJECTION = {
+            DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+            DocumentsContract.Document.COLUMN_SIZE,
+            DocumentsContract.Document.COLUMN_MIME_TYPE,
+            DocumentsContract.Document.COLUMN_LAST_MODIFIED
+    };
+    private static final String[] MEDIA_PROJECTION = {
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.MediaColumns.MIME_TYPE,
+            MediaStore.MediaColumns.DATE_MODIFIED
+    };
+    private static final String[] OPENABLE_PROJECTION = {
+            OpenableColumns.DISPLAY_NAME,
+            OpenableColumns.SIZE
+    };
+
+    /**
+     * Authorities that rejected the document or media projection.
+     */
+    private static final Set<String> OPENABLE_ONLY =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final LruCache<Uri, UriMetadata> cache;
+    private final SingleFlight<Uri, UriMetadata> queries = new SingleFlight<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UriMetadataCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public UriMetadataCache(int maxEntries) {
+        cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * @return The metadata of {@code uri}, from the cache or a single query. Fields the provider
+     * does not report are null or {@link UriMetadata#UNKNOWN}.
+     */
+    @NonNull
+    public UriMetadata get(@NonNull final Context context, @NonNull final Uri uri) {
+        UriMetadata metadata = cache.get(uri);
+        if (metadata != null) {
+            hits.incrementAndGet();
+            return metadata;
+        }
+        misses.incrementAndGet();
+        try {
+            return queries.execute(uri, new Callable<UriMetadata>() {
+                @Override
+                public UriMetadata call() {
+                    UriMetadata result = queryOrNull(context, uri);
+                    if (result == null) {
+                        return unknown();
+                    }
+                    cache.put(uri, result);
+                    return result;
+                }
+            });
+        } catch (IOException e) {
+            // the query does not throw, SingleFlight only reports an interrupted wait here
+            return unknown();
+        }
+    }
+
+    /**
+     * @return The cached metadata of {@code uri} without querying, or null.
+     */
+    @Nullable
+    public UriMetadata peek(@NonNull Uri uri) {
+        return cache.get(uri);
+    }
+
+    public void invalidate(@NonNull Uri uri) {
+        cache.remove(uri);
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "UriMetadataCache[size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount() + "]";
+    }
+
+    /**
+     * Reads the metadata of {@code uri} without the cache.
+     */
+    @NonNull
+    public static UriMetadata query(@NonNull Context context, @NonNull Uri uri) {
+        UriMetadata metadata = queryOrNull(context, uri);
+        return metadata != null ? metadata : unknown();
+    }
+
+    /**
+     * @return The metadata of {@code uri}, or null if the provider could not be queried or has no
+     * row for it.
+     */
+    @Nullable
+    private static UriMetadata queryOrNull(Context context, Uri uri) {
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            File file = new File(uri.getPath());
+            if (!file.exists()) {
+                return null;
+            }
+            return new UriMetadata(file.getName(), file.length(),
+                    MimeTypeRegistry.getInstance().getMimeType(file.getName()), file.lastModified());
+        }
+
+        String authority = uri.getAuthority();
+        String[] projection;
+        if (authority != null && OPENABLE_ONLY.contains(authority)) {
+            projection = OPENABLE_PROJECTION;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && DocumentsContract.isDocumentUri(context, uri)) {
+            projection = DOCUMENT_PROJECTION;
+        } else if (MediaStore.AUTHORITY.equals(authority)) {
+            projection = MEDIA_PROJECTION;
+        } else {
+            projection = OPENABLE_PROJECTION;
+        }
+
+        String displayName;
+        long size;
+        String mimeType = null;
+        long lastModified = UriMetadata.UNKNOWN;
+        Cursor cursor = null;
+        try {
+            cursor = context.getContentResolver().query(uri, projection, null, null, null);
+            if (cursor == null || !cursor.moveToFirst()) {
+                return null;
+            }
+            displayName = getString(cursor, projection[0]);
+            size = getLong(cursor, projection[1]);
+            if (projection.length > 2) {
+                mimeType = getString(cursor, projection[2]);
+                lastModified = getLong(cursor, projection[3]);
+                if (projection == MEDIA_PROJECTION && lastModified != UriMetadata.UNKNOWN) {
+                    // DATE_MODIFIED is in seconds
+                    lastModified *= 1000;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            if (projection != OPENABLE_PROJECTION && authority != null) {
+                // the provider rejects one of the extra columns, the next miss asks for fewer
+                OPENABLE_ONLY.add(authority);
+            }
+            Log.w(TAG, "Unable to query " + uri, e);
+            return null;
+        } catch (Exception e) {
+            Log.w(TAG, "Unable to query " + uri, e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        if (mimeType == null && displayName != null) {
+            mimeType = MimeTypeRegistry.getInstance().getMimeType(displayName);
+        }
+        if (mimeType == null) {
+            try {
+                mimeType = context.getContentResolver().getType(uri);
+            } catch (Exception e) {
+                // the columns were read, a provider failing here should not discard them
+                Log.w(TAG, "Unable to get type of " + uri, e);
+            }
+        }
+        return new UriMetadata(displayName, size, mimeType, lastModified);
+    }
+
+    private static UriMetadata unknown() {
+        return new UriMetadata(null, UriMetadata.UNKNOWN, null, UriMetadata.UNKNOWN);
+    }
+
+    private static String getString(Cursor cursor, String column) {
+        int index = cursor.getColumnIndex(column);
+        return index < 0 || cursor.isNull(index) ? null : cursor.getString(index);
+    }
+
+    private static long getLong(Cursor cursor, String column) {
+        int index = cursor.getColumnIndex(column);
+        return index < 0 || cursor.isNull(index) ? UriMetadata.UNKNOWN : cursor.getLong(index);
+    }
+}
@@ -0,0 +1,134 @@
+package com.jqueue;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.hqyatu.destination.utils.FileUtils;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe LRU cache of Uri to local path resolutions made by
+ * {@link FileUtils#getPath(Context, Uri)}.
+ * <p>
+ * An entry is dropped when the file it points to no longer exists. Entries that point to a copy
+ * in {@link FileUtils#getDocumentCacheDir(Context)} also remember the document's last-modified
+ * time and are dropped when the provider reports a different one, since the copy is stale then.
+ * The last-modified time comes from {@link FileUtils#getMetadataCache()} and is re-queried at most
+ * once per {@link #REVALIDATE_INTERVAL_MS}, so a hit normally costs no provider query.
+ */
+public final class UriPathCache {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long REVALIDATE_INTERVAL_MS = 10 * 1000;
+
+    private final LruCache<Uri, Entry> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static final class Entry {
+        final String path;
+        final boolean copy;
+        final long documentLastModified;
+        volatile long validatedAt;
+
+        Entry(String path, boolean copy, long documentLastModified) {
+            this.path = path;
+            this.copy = copy;
+            this.documentLastModified = documentLastModified;
+            this.validatedAt = SystemClock.uptimeMillis();
+        }
+    }
+
+    public UriPathCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public UriPathCache(int maxEntries) {
+        cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * @return The cached path for {@code uri}, or null if there is none or it is no longer valid.
+     */
+    @Nullable
+    public String get(@NonNull Context context, @NonNull Uri uri) {
+        Entry entry = cache.get(uri);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!isValid(context, uri, entry)) {
+            cache.remove(uri);
+            invalidations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.path;
+    }
+
+    public void put(@NonNull Context context, @NonNull Uri uri, @NonNull String path) {
+        boolean copy = FileUtils.isDocumentCacheFile(context, path);
+        long lastModified = copy ? FileUtils.getMetadata(context, uri).lastModified : UriMetadata.UNKNOWN;
+        cache.put(uri, new Entry(path, copy, lastModified));
+    }
+
+    public void invalidate(@NonNull Uri uri) {
+        if (cache.remove(uri) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long invalidationCount() {
+        return invalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "UriPathCache[size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", invalidations=" + invalidationCount() + "]";
+    }
+
+    private static boolean isValid(Context context, Uri uri, Entry entry) {
+        if (FileUtils.isLocal(entry.path) && !new File(entry.path).exists()) {
+            return false;
+        }
+        if (!entry.copy || entry.documentLastModified == UriMetadata.UNKNOWN) {
+            return true;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (now - entry.validatedAt < REVALIDATE_INTERVAL_MS) {
+            return true;
+        }
+        // refreshes the shared metadata entry as well
+        FileUtils.getMetadataCache().invalidate(uri);
+        if (FileUtils.getMetadata(context, uri).lastModified != entry.documentLastModified) {
+            return false;
+        }
+        entry.validatedAt = now;
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package com.jqueue
+
+import android.view.View
+import androidx.core.view.OnApplyWindowInsetsListener
+import androidx.core.view.ViewCompat
+import androidx.core.view.WindowInsetsCompat
+import java.util.WeakHashMap
+
+/**
+ * 把窗口 insets 分发给注册的 View
+ *
+ * 在 [host] 上监听 [OnApplyWindowInsetsListener]，旋转、分屏、系统栏显示隐藏时都会收到新的 insets；
+ * 值与上次相同时直接跳过，不会触发任何 View 的重新布局。注册的 View 以注册时的 padding 为基础，
+ * 在选定的边上加上系统栏（及 API 28 以上的刘海安全区域）高度，只有 padding 真正变化时才调用 setPadding。
+ * 除 [install] 时指定的边外，insets 不会被消费，子 View 仍能收到。
+ */
+class WindowInsetsDispatcher private constructor(val host: View, private val consumedSides: Int) :
+    OnApplyWindowInsetsListener {
+
+    /**
+     * 左、上、右、下的系统栏 insets，以及同顺序的刘海安全区域
+     */
+    private val current = IntArray(8)
+    private var received = false
+    private val targets = WeakHashMap<View, Target>()
+    private val listeners = ArrayList<(WindowInsetsDispatcher) -> Unit>()
+
+    private class Target(val sides: Int, val includeCutout: Boolean, val basePadding: IntArray) {
+        val applied = IntArray(4)
+    }
+
+    val systemBarLeft get() = current[0]
+    val systemBarTop get() = current[1]
+    val systemBarRight get() = current[2]
+    val systemBarBottom get() = current[3]
+    val cutoutLeft get() = current[4]
+    val cutoutTop get() = current[5]
+    val cutoutRight get() = current[6]
+    val cutoutBottom get() = current[7]
+
+    /**
+     * 是否已经收到过 insets；之前各值均为 0
+     */
+    val hasInsets get() = received
+
+    /**
+     * 让 [view] 在 [sides]（[LEFT]、[TOP]、[RIGHT]、[BOTTOM] 的组合）上避开系统栏
+     *
+     * @param includeCutout 是否同时避开刘海
+     */
+    fun register(view: View, sides: Int, includeCutout: Boolean = true) {
+        unregister(view)
+        val target = Target(
+            sides, includeCutout,
+            intArrayOf(view.paddingLeft, view.paddingTop, view.paddingRight, view.paddingBottom)
+        )
+        System.arraycopy(target.basePadding, 0, target.applied, 0, 4)
+        targets[view] = target
+        if (received) {
+            apply(view, target)
+        }
+    }
+
+    /**
+     * 取消注册并恢复注册时的 padding
+     */
+    fun unregister(view: View) {
+        val target = targets.remove(view) ?: return
+        val base = target.basePadding
+        view.setPadding(base[0], base[1], base[2], base[3])
+    }
+
+    /**
+     * insets 变化时回调，注册时如果已有 insets 会立即回调一次
+     */
+    fun addListener(listener: (WindowInsetsDispatcher) -> Unit) {
+        listeners.add(listener)
+        if (received) {
+            listener(this)
+        }
+    }
+
+    fun removeListener(listener: (WindowInsetsDispatcher) -> Unit) {
+        listeners.remove(listener)
+    }
+
+    override fun onApplyWindowInsets(v: View, insets: WindowInsetsCompat): WindowInsetsCompat {
+        val cutout = insets.displayCutout
+        val changed = update(0, insets.systemWindowInsetLeft) or
+                update(1, insets.systemWindowInsetTop) or
+                update(2, insets.systemWindowInsetRight) or
+                update(3, insets.systemWindowInsetBottom) or
+                update(4, cutout?.safeInsetLeft ?: 0) or
+                update(5, cutout?.safeInsetTop ?: 0) or
+                update(6, cutout?.safeInsetRight ?: 0) or
+                update(7, cutout?.safeInsetBottom ?: 0)
+        if (changed || !received) {
+            received = true
+            SystemUiDimensions.invalidate()
+            for ((view, target) in targets) {
+                apply(view, target)
+            }
+            for (listener in listeners.toTypedArray()) {
+                listener(this)
+            }
+        }
+        // host 自身的默认处理（如 decorView 绘制系统栏背景）使用完整的 insets
+        ViewCompat.onApplyWindowInsets(v, insets)
+        if (consumedSides == 0) {
+            return insets
+        }
+        // 已由 host 处理的边不再交给子 View，避免 fitsSystemWindows 的布局重复避让
+        return insets.replaceSystemWindowInsets(
+            if ((consumedSides and LEFT) == 0) insets.systemWindowInsetLeft else 0,
+            if ((consumedSides and TOP) == 0) insets.systemWindowInsetTop else 0,
+            if ((consumedSides and RIGHT) == 0) insets.systemWindowInsetRight else 0,
+            if ((consumedSides and BOTTOM) == 0) insets.systemWindowInsetBottom else 0
+        )
+    }
+
+    private fun update(index: Int, value: Int): Boolean {
+        if (current[index] == value) {
+            return false
+        }
+        current[index] = value
+        return true
+    }
+
+    private fun apply(view: View, target: Target) {
+        val applied = target.applied
+        var changed = false
+        for (side in 0 until 4) {
+            val inset = if ((target.sides and (1 shl side)) == 0) {
+                0
+            } else if (target.includeCutout) {
+                maxOf(current[side], current[side + 4])
+            } else {
+                current[side]
+            }
+            val padding = target.basePadding[side] + inset
+            if (applied[side] != padding) {
+                applied[side] = padding
+                changed = true
+            }
+        }
+        if (changed) {
+            view.setPadding(applied[0], applied[1], applied[2], applied[3])
+        }
+    }
+
+    companion object {
+        const val LEFT = 1
+        const val TOP = 1 shl 1
+        const val RIGHT = 1 shl 2
+        const val BOTTOM = 1 shl 3
+        const val ALL = LEFT or TOP or RIGHT or BOTTOM
+
+        /**
+         * 在 [host] 上安装分发器并请求一次 insets；主线程调用
+         *
+         * @param consumedSides 在这些边上消费系统栏 insets，子 View 收到的对应值为 0
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun install(host: View, consumedSides: Int = 0): WindowInsetsDispatcher =
+            WindowInsetsDispatcher(host, consumedSides).also {
+                ViewCompat.setOnApplyWindowInsetsListener(host, it)
+                ViewCompat.requestApplyInsets(host)
+            }
+    }
+}
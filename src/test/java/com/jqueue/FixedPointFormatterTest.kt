@@ -0,0 +1,34 @@
+package com.jqueue
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.Locale
+import java.util.Random
+
+/**
+ * [FixedPointFormatter] 与 String.format 的结果对比；耗时见 benchmark 模块的 FormatBenchmark
+ */
+class FixedPointFormatterTest {
+    private val values = Random(42).let { random ->
+        DoubleArray(4096) { i ->
+            when (i % 3) {
+                0 -> (random.nextDouble() - 0.5) * 100000
+                // 十进制下正好是 .5 的值
+                1 -> (random.nextInt(2000000) - 1000000) / 1000.0
+                else -> random.nextFloat() * 1000.0
+            }
+        }
+    }
+
+    @Test
+    fun sameResultAsStringFormat() {
+        for (locale in arrayOf(Locale.US, Locale.GERMANY, Locale("ar", "EG"))) {
+            val formatter = FixedPointFormatter(locale)
+            for (bit in 0..6) {
+                for (value in values + doubleArrayOf(-0.0, -0.04, 0.125, 2.675, 1.005, 1e20, Double.NaN)) {
+                    assertEquals(String.format(locale, "%.${bit}f", value), formatter.format(value, bit))
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.jqueue
+
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+/**
+ * [MimeSniffer] 中内容与扩展名冲突时的取舍
+ */
+class MimeSnifferTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private fun file(name: String, vararg header: Int) = folder.newFile(name).apply {
+        writeBytes(ByteArray(64) { i -> if (i < header.size) header[i].toByte() else 0 })
+    }
+
+    @Test
+    fun misnamedJpegIsDetectedByContent() {
+        assertEquals("image/jpeg", MimeSniffer.detect(file("photo.png", 0xFF, 0xD8, 0xFF, 0xE0)))
+    }
+
+    @Test
+    fun misnamedMp3IsDetectedByContent() {
+        assertEquals("audio/mpeg", MimeSniffer.detect(file("song.txt", 0xFF, 0xFB, 0x90, 0x44)))
+    }
+
+    @Test
+    fun weakSignatureLosesToRegisteredExtension() {
+        assertEquals("text/plain", MimeSniffer.detect(file("notes.txt", 'B'.toInt(), 'M'.toInt(), ' '.toInt())))
+    }
+
+    @Test
+    fun weakSignatureDecidesWithoutExtension() {
+        assertEquals("image/bmp", MimeSniffer.detect(file("image", 'B'.toInt(), 'M'.toInt(), 0x36)))
+    }
+}